@@ -0,0 +1,175 @@
+package info.kgeorgiy.ja.berkutov.walk.bench;
+
+import info.kgeorgiy.ja.berkutov.walk.FileHasher;
+import info.kgeorgiy.ja.berkutov.walk.HashAlgorithm;
+import info.kgeorgiy.ja.berkutov.walk.HashWriter;
+import info.kgeorgiy.ja.berkutov.walk.RecursiveWalker;
+import info.kgeorgiy.ja.berkutov.walk.WalkStats;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Throughput of walk hashing over synthetic trees generated in a temporary directory:
+ * many tiny files, a few huge files and deep nesting.
+ * Auxiliary counters {@code megabytes} and {@code files} are reported per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WalkBenchmark {
+    private static final int TINY_FILES = 4096;
+    private static final int TINY_SIZE = 1024;
+    private static final int HUGE_FILES = 2;
+    private static final int DEPTH = 256;
+
+    @Param({"4096", "65536", "1048576"})
+    public int bufferSize;
+
+    @Param({"SHA_256", "SHA_1", "MD5", "CRC32C", "XXHASH64"})
+    public HashAlgorithm algorithm;
+
+    @Param({"STREAM", "CHANNEL", "MMAP"})
+    public FileHasher.ReadMode mode;
+
+    @Param({"67108864"})
+    public long hugeSize;
+
+    private Path root;
+    private Path tiny;
+    private Path huge;
+    private Path deep;
+    private List<Path> hugeFiles;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public double megabytes;
+        public long files;
+
+        @Setup(Level.Iteration)
+        public void clear() {
+            megabytes = 0;
+            files = 0;
+        }
+
+        void add(final long bytes, final long count) {
+            megabytes += bytes / 1e6;
+            files += count;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void createTrees() throws IOException {
+        final Random random = new Random(4242);
+        root = Files.createTempDirectory("walk-benchmark");
+
+        tiny = Files.createDirectories(root.resolve("tiny"));
+        final byte[] small = new byte[TINY_SIZE];
+        for (int i = 0; i < TINY_FILES; i++) {
+            random.nextBytes(small);
+            Files.write(Files.createDirectories(tiny.resolve("d" + i % 64)).resolve("f" + i), small);
+        }
+
+        huge = Files.createDirectories(root.resolve("huge"));
+        hugeFiles = new ArrayList<>();
+        final byte[] block = new byte[1 << 20];
+        for (int i = 0; i < HUGE_FILES; i++) {
+            final Path file = huge.resolve("h" + i);
+            try (final OutputStream out = Files.newOutputStream(file)) {
+                for (long written = 0; written < hugeSize; written += block.length) {
+                    random.nextBytes(block);
+                    out.write(block, 0, (int) Math.min(block.length, hugeSize - written));
+                }
+            }
+            hugeFiles.add(file);
+        }
+
+        deep = Files.createDirectories(root.resolve("deep"));
+        Path dir = deep;
+        for (int i = 0; i < DEPTH; i++) {
+            dir = Files.createDirectories(dir.resolve("n" + i));
+            random.nextBytes(small);
+            Files.write(dir.resolve("f"), small);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteTrees() throws IOException {
+        try (final Stream<Path> paths = Files.walk(root)) {
+            for (final Path path : paths.sorted(Comparator.reverseOrder()).toList()) Files.delete(path);
+        }
+    }
+
+    private FileHasher hasher() {
+        return new FileHasher(algorithm, mode, bufferSize, FileHasher.DEFAULT_MAP_THRESHOLD);
+    }
+
+    @Benchmark
+    public void hugeFiles(final Counters counters, final Blackhole blackhole) throws IOException {
+        final FileHasher hasher = hasher();
+        for (final Path file : hugeFiles) {
+            blackhole.consume(hasher.digest(file));
+            counters.add(hugeSize, 1);
+        }
+    }
+
+    @Benchmark
+    public void tinyFiles(final Counters counters, final Blackhole blackhole) throws IOException {
+        hashTree(tiny, counters, blackhole);
+    }
+
+    @Benchmark
+    public void deepTree(final Counters counters, final Blackhole blackhole) throws IOException {
+        hashTree(deep, counters, blackhole);
+    }
+
+    private void hashTree(final Path tree, final Counters counters, final Blackhole blackhole) throws IOException {
+        final FileHasher hasher = hasher();
+        Files.walkFileTree(tree, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) throws IOException {
+                blackhole.consume(hasher.digest(file));
+                counters.add(attrs.size(), 1);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Complete walk of tiny files with output, parallel hashing and asynchronous writer.
+     */
+    @Benchmark
+    @Threads(1)
+    public void walkTinyFiles(final Counters counters) throws IOException {
+        final int threads = Runtime.getRuntime().availableProcessors();
+        final WalkStats stats = new WalkStats(threads, 0);
+        final Path output = root.resolve("output.txt");
+        try (final FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             final RecursiveWalker walker = new RecursiveWalker(
+                     new HashWriter(channel, RecursiveWalker.queueCapacity(threads)),
+                     threads, this::hasher, null, stats)) {
+            Files.walkFileTree(tiny, walker);
+        }
+        counters.add((long) TINY_FILES * TINY_SIZE, TINY_FILES);
+    }
+}
@@ -16,7 +16,7 @@ public class ArraySet<E> extends AbstractSet<E> implements NavigableSet<E> {
     }
 
     public ArraySet(Collection<E> collection) {
-        this(new ArrayList<>(collection), null);
+        this(collection, null);
     }
 
     public ArraySet(Comparator<? super E> comparator) {
@@ -25,9 +25,35 @@ public class ArraySet<E> extends AbstractSet<E> implements NavigableSet<E> {
 
     public ArraySet(Collection<E> collection, Comparator<? super E> comparator) {
         this.comparator = comparator;
-        Set<E> set = new TreeSet<>(this.comparator);
-        set.addAll(collection);
-        this.list = new OrderedList<>(List.copyOf(set), false);
+        Object[] values = collection.toArray();
+        int size = values.length;
+        if (!(collection instanceof SortedSet<?> sorted && Objects.equals(sorted.comparator(), comparator))) {
+            size = sortedDistinct(values, comparator);
+        }
+        this.list = new OrderedList<>(values, 0, size, false);
+    }
+
+    /**
+     * Sorts values in place unless they are sorted already and moves distinct ones to the beginning,
+     * keeping the first of equal values. Returns number of distinct values.
+     * {@link Arrays#parallelSort} sorts small arrays sequentially.
+     */
+    @SuppressWarnings("unchecked")
+    private static <E> int sortedDistinct(Object[] values, Comparator<? super E> comparator) {
+        final Comparator<Object> cmp = (Comparator<Object>) (comparator != null ? comparator : Comparator.naturalOrder());
+        boolean sorted = true;
+        for (int i = 0; i < values.length; i++) {
+            Objects.requireNonNull(values[i]);
+            if (i > 0 && cmp.compare(values[i - 1], values[i]) > 0) sorted = false;
+        }
+        if (!sorted) Arrays.parallelSort(values, cmp);
+
+        int size = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (size == 0 || cmp.compare(values[size - 1], values[i]) != 0) values[size++] = values[i];
+        }
+        Arrays.fill(values, size, values.length, null);
+        return size;
     }
 
     private ArraySet<E> emptySet() {
@@ -41,7 +67,7 @@ public class ArraySet<E> extends AbstractSet<E> implements NavigableSet<E> {
     private int shiftedSearch(E el, boolean inc, int shift1, int shift2) {
         int ind = Collections.binarySearch(list, Objects.requireNonNull(el), comparator);
         if (ind < 0) return -ind - shift2 - 1;
-        if (inc && comparator.compare(el, list.get(ind)) == 0) return ind;
+        if (inc) return ind;
         return ind + shift1;
     }
 
@@ -190,26 +216,43 @@ public class ArraySet<E> extends AbstractSet<E> implements NavigableSet<E> {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * View of {@code size} elements of a sorted array starting from {@code offset}, possibly in reverse order.
+     * Sub-lists and reversed lists share the array.
+     */
     private static class OrderedList<E> extends AbstractList<E> implements RandomAccess {
-        private final Boolean reverse;
-        private final ArrayList<E> list;
-
-        public OrderedList(List<E> list, boolean reverse) {
-            this.list = new ArrayList<>(list);
+        private final Object[] array;
+        private final int offset;
+        private final int size;
+        private final boolean reverse;
+
+        public OrderedList(Object[] array, int offset, int size, boolean reverse) {
+            this.array = array;
+            this.offset = offset;
+            this.size = size;
             this.reverse = reverse;
         }
 
         public OrderedList<E> getReverse() {
-            return new OrderedList<>(list, !reverse);
+            return new OrderedList<>(array, offset, size, !reverse);
         }
 
+        @Override
+        @SuppressWarnings("unchecked")
         public E get(int ind) {
-            return list.get(!reverse ? ind : list.size() - ind - 1);
+            Objects.checkIndex(ind, size);
+            return (E) array[offset + (!reverse ? ind : size - ind - 1)];
+        }
+
+        @Override
+        public OrderedList<E> subList(int from, int to) {
+            Objects.checkFromToIndex(from, to, size);
+            return new OrderedList<>(array, offset + (!reverse ? from : size - to), to - from, reverse);
         }
 
         @Override
         public int size() {
-            return list.size();
+            return size;
         }
     }
 }
\ No newline at end of file
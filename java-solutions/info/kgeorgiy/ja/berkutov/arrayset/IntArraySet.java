@@ -0,0 +1,325 @@
+package info.kgeorgiy.ja.berkutov.arrayset;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable {@link NavigableSet} of {@code int} values in natural order, stored in a sorted {@code int[]}.
+ * Primitive overloads search the array without boxing; views share the array like {@link ArraySet} views.
+ */
+public class IntArraySet extends AbstractSet<Integer> implements NavigableSet<Integer> {
+    private final int[] array;
+    private final int offset;
+    private final int size;
+    private final boolean reverse;
+
+    private IntArraySet(int[] array, int offset, int size, boolean reverse) {
+        this.array = array;
+        this.offset = offset;
+        this.size = size;
+        this.reverse = reverse;
+    }
+
+    public IntArraySet() {
+        this(new int[0], 0, 0, false);
+    }
+
+    public IntArraySet(int... values) {
+        this(sortedDistinct(values.clone()), false);
+    }
+
+    public IntArraySet(Collection<? extends Integer> collection) {
+        this(sortedDistinct(collection.stream().mapToInt(Integer::intValue).toArray()), false);
+    }
+
+    private IntArraySet(int[] sorted, boolean reverse) {
+        this(sorted, 0, sorted.length, reverse);
+    }
+
+    private static int[] sortedDistinct(int[] values) {
+        Arrays.sort(values);
+        int n = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (n == 0 || values[n - 1] != values[i]) values[n++] = values[i];
+        }
+        return n == values.length ? values : Arrays.copyOf(values, n);
+    }
+
+    /**
+     * Returns physical index of the last element less than (or equal to) {@code key} in ascending order.
+     */
+    private int floorIndex(int key, boolean inclusive) {
+        int ind = Arrays.binarySearch(array, offset, offset + size, key);
+        if (ind < 0) return -ind - 2;
+        return inclusive ? ind : ind - 1;
+    }
+
+    /**
+     * Returns physical index of the first element greater than (or equal to) {@code key} in ascending order.
+     */
+    private int ceilingIndex(int key, boolean inclusive) {
+        int ind = Arrays.binarySearch(array, offset, offset + size, key);
+        if (ind < 0) return -ind - 1;
+        return inclusive ? ind : ind + 1;
+    }
+
+    /**
+     * Returns physical index of the lower element in the order of this set, or an index out of the view if there is none.
+     * Same for floor, ceiling and higher below.
+     */
+    private int indexOfLower(int value) {
+        return reverse ? ceilingIndex(value, false) : floorIndex(value, false);
+    }
+
+    private int indexOfFloor(int value) {
+        return reverse ? ceilingIndex(value, true) : floorIndex(value, true);
+    }
+
+    private int indexOfCeiling(int value) {
+        return reverse ? floorIndex(value, true) : ceilingIndex(value, true);
+    }
+
+    private int indexOfHigher(int value) {
+        return reverse ? floorIndex(value, false) : ceilingIndex(value, false);
+    }
+
+    private boolean inView(int ind) {
+        return offset <= ind && ind < offset + size;
+    }
+
+    private OptionalInt at(int ind) {
+        return inView(ind) ? OptionalInt.of(array[ind]) : OptionalInt.empty();
+    }
+
+    private int at(int ind, int absent) {
+        return inView(ind) ? array[ind] : absent;
+    }
+
+    private Integer boxedAt(int ind) {
+        return inView(ind) ? Integer.valueOf(array[ind]) : null;
+    }
+
+    private int get(int ind) {
+        return array[offset + (!reverse ? ind : size - ind - 1)];
+    }
+
+    private IntArraySet view(int from, int to) {
+        return from < to ? new IntArraySet(array, from, to - from, reverse) : new IntArraySet(array, offset, 0, reverse);
+    }
+
+    private int compare(int a, int b) {
+        return reverse ? Integer.compare(b, a) : Integer.compare(a, b);
+    }
+
+    public boolean contains(int value) {
+        return Arrays.binarySearch(array, offset, offset + size, value) >= 0;
+    }
+
+    public OptionalInt lower(int value) {
+        return at(indexOfLower(value));
+    }
+
+    /**
+     * Returns the lower element or {@code absent} if there is none. Unlike {@link #lower(int)}, allocates nothing;
+     * the same holds for floor, ceiling and higher below.
+     */
+    public int lower(int value, int absent) {
+        return at(indexOfLower(value), absent);
+    }
+
+    public OptionalInt floor(int value) {
+        return at(indexOfFloor(value));
+    }
+
+    public int floor(int value, int absent) {
+        return at(indexOfFloor(value), absent);
+    }
+
+    public OptionalInt ceiling(int value) {
+        return at(indexOfCeiling(value));
+    }
+
+    public int ceiling(int value, int absent) {
+        return at(indexOfCeiling(value), absent);
+    }
+
+    public OptionalInt higher(int value) {
+        return at(indexOfHigher(value));
+    }
+
+    public int higher(int value, int absent) {
+        return at(indexOfHigher(value), absent);
+    }
+
+    public int firstInt() {
+        if (isEmpty()) throw new NoSuchElementException();
+        return get(0);
+    }
+
+    public int lastInt() {
+        if (isEmpty()) throw new NoSuchElementException();
+        return get(size - 1);
+    }
+
+    public IntArraySet subSet(int fromElement, boolean fromInclusive, int toElement, boolean toInclusive) {
+        if (compare(fromElement, toElement) > 0) throw new IllegalArgumentException();
+        return !reverse
+                ? view(ceilingIndex(fromElement, fromInclusive), floorIndex(toElement, toInclusive) + 1)
+                : view(ceilingIndex(toElement, toInclusive), floorIndex(fromElement, fromInclusive) + 1);
+    }
+
+    public IntArraySet headSet(int toElement, boolean inclusive) {
+        return !reverse
+                ? view(offset, floorIndex(toElement, inclusive) + 1)
+                : view(ceilingIndex(toElement, inclusive), offset + size);
+    }
+
+    public IntArraySet tailSet(int fromElement, boolean inclusive) {
+        return !reverse
+                ? view(ceilingIndex(fromElement, inclusive), offset + size)
+                : view(offset, floorIndex(fromElement, inclusive) + 1);
+    }
+
+    public IntArraySet subSet(int fromElement, int toElement) {
+        return subSet(fromElement, true, toElement, false);
+    }
+
+    public IntArraySet headSet(int toElement) {
+        return headSet(toElement, false);
+    }
+
+    public IntArraySet tailSet(int fromElement) {
+        return tailSet(fromElement, true);
+    }
+
+    public int[] toIntArray() {
+        final int[] result = Arrays.copyOfRange(array, offset, offset + size);
+        if (reverse) {
+            for (int i = 0, j = size - 1; i < j; i++, j--) {
+                final int t = result[i];
+                result[i] = result[j];
+                result[j] = t;
+            }
+        }
+        return result;
+    }
+
+    public IntStream intStream() {
+        return !reverse
+                ? Arrays.stream(array, offset, offset + size)
+                : IntStream.range(0, size).map(this::get);
+    }
+
+    @Override
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+            private int ind = 0;
+
+            @Override
+            public boolean hasNext() {
+                return ind < size;
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return get(ind++);
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Integer value && contains(value.intValue());
+    }
+
+    @Override
+    public Integer lower(Integer e) {
+        return boxedAt(indexOfLower(e));
+    }
+
+    @Override
+    public Integer floor(Integer e) {
+        return boxedAt(indexOfFloor(e));
+    }
+
+    @Override
+    public Integer ceiling(Integer e) {
+        return boxedAt(indexOfCeiling(e));
+    }
+
+    @Override
+    public Integer higher(Integer e) {
+        return boxedAt(indexOfHigher(e));
+    }
+
+    @Override
+    public Integer first() {
+        return firstInt();
+    }
+
+    @Override
+    public Integer last() {
+        return lastInt();
+    }
+
+    @Override
+    public Integer pollFirst() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Integer pollLast() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public IntArraySet descendingSet() {
+        return new IntArraySet(array, offset, size, !reverse);
+    }
+
+    @Override
+    public PrimitiveIterator.OfInt descendingIterator() {
+        return descendingSet().iterator();
+    }
+
+    @Override
+    public IntArraySet subSet(Integer fromElement, boolean fromInclusive, Integer toElement, boolean toInclusive) {
+        return subSet(fromElement.intValue(), fromInclusive, toElement.intValue(), toInclusive);
+    }
+
+    @Override
+    public IntArraySet headSet(Integer toElement, boolean inclusive) {
+        return headSet(toElement.intValue(), inclusive);
+    }
+
+    @Override
+    public IntArraySet tailSet(Integer fromElement, boolean inclusive) {
+        return tailSet(fromElement.intValue(), inclusive);
+    }
+
+    @Override
+    public IntArraySet subSet(Integer fromElement, Integer toElement) {
+        return subSet(fromElement, true, toElement, false);
+    }
+
+    @Override
+    public IntArraySet headSet(Integer toElement) {
+        return headSet(toElement, false);
+    }
+
+    @Override
+    public IntArraySet tailSet(Integer fromElement) {
+        return tailSet(fromElement, true);
+    }
+
+    @Override
+    public Comparator<? super Integer> comparator() {
+        return reverse ? Collections.reverseOrder() : null;
+    }
+}
@@ -0,0 +1,326 @@
+package info.kgeorgiy.ja.berkutov.arrayset;
+
+import java.util.*;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/**
+ * Immutable {@link NavigableSet} of {@code long} values in natural order, stored in a sorted {@code long[]}.
+ * Primitive overloads search the array without boxing; views share the array like {@link ArraySet} views.
+ */
+public class LongArraySet extends AbstractSet<Long> implements NavigableSet<Long> {
+    private final long[] array;
+    private final int offset;
+    private final int size;
+    private final boolean reverse;
+
+    private LongArraySet(long[] array, int offset, int size, boolean reverse) {
+        this.array = array;
+        this.offset = offset;
+        this.size = size;
+        this.reverse = reverse;
+    }
+
+    public LongArraySet() {
+        this(new long[0], 0, 0, false);
+    }
+
+    public LongArraySet(long... values) {
+        this(sortedDistinct(values.clone()), false);
+    }
+
+    public LongArraySet(Collection<? extends Long> collection) {
+        this(sortedDistinct(collection.stream().mapToLong(Long::longValue).toArray()), false);
+    }
+
+    private LongArraySet(long[] sorted, boolean reverse) {
+        this(sorted, 0, sorted.length, reverse);
+    }
+
+    private static long[] sortedDistinct(long[] values) {
+        Arrays.sort(values);
+        int n = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (n == 0 || values[n - 1] != values[i]) values[n++] = values[i];
+        }
+        return n == values.length ? values : Arrays.copyOf(values, n);
+    }
+
+    /**
+     * Returns physical index of the last element less than (or equal to) {@code key} in ascending order.
+     */
+    private int floorIndex(long key, boolean inclusive) {
+        int ind = Arrays.binarySearch(array, offset, offset + size, key);
+        if (ind < 0) return -ind - 2;
+        return inclusive ? ind : ind - 1;
+    }
+
+    /**
+     * Returns physical index of the first element greater than (or equal to) {@code key} in ascending order.
+     */
+    private int ceilingIndex(long key, boolean inclusive) {
+        int ind = Arrays.binarySearch(array, offset, offset + size, key);
+        if (ind < 0) return -ind - 1;
+        return inclusive ? ind : ind + 1;
+    }
+
+    /**
+     * Returns physical index of the lower element in the order of this set, or an index out of the view if there is none.
+     * Same for floor, ceiling and higher below.
+     */
+    private int indexOfLower(long value) {
+        return reverse ? ceilingIndex(value, false) : floorIndex(value, false);
+    }
+
+    private int indexOfFloor(long value) {
+        return reverse ? ceilingIndex(value, true) : floorIndex(value, true);
+    }
+
+    private int indexOfCeiling(long value) {
+        return reverse ? floorIndex(value, true) : ceilingIndex(value, true);
+    }
+
+    private int indexOfHigher(long value) {
+        return reverse ? floorIndex(value, false) : ceilingIndex(value, false);
+    }
+
+    private boolean inView(int ind) {
+        return offset <= ind && ind < offset + size;
+    }
+
+    private OptionalLong at(int ind) {
+        return inView(ind) ? OptionalLong.of(array[ind]) : OptionalLong.empty();
+    }
+
+    private long at(int ind, long absent) {
+        return inView(ind) ? array[ind] : absent;
+    }
+
+    private Long boxedAt(int ind) {
+        return inView(ind) ? Long.valueOf(array[ind]) : null;
+    }
+
+    private long get(int ind) {
+        return array[offset + (!reverse ? ind : size - ind - 1)];
+    }
+
+    private LongArraySet view(int from, int to) {
+        return from < to ? new LongArraySet(array, from, to - from, reverse) : new LongArraySet(array, offset, 0, reverse);
+    }
+
+    private int compare(long a, long b) {
+        return reverse ? Long.compare(b, a) : Long.compare(a, b);
+    }
+
+    public boolean contains(long value) {
+        return Arrays.binarySearch(array, offset, offset + size, value) >= 0;
+    }
+
+    public OptionalLong lower(long value) {
+        return at(indexOfLower(value));
+    }
+
+    /**
+     * Returns the lower element or {@code absent} if there is none. Unlike {@link #lower(long)}, allocates nothing;
+     * the same holds for floor, ceiling and higher below.
+     */
+    public long lower(long value, long absent) {
+        return at(indexOfLower(value), absent);
+    }
+
+    public OptionalLong floor(long value) {
+        return at(indexOfFloor(value));
+    }
+
+    public long floor(long value, long absent) {
+        return at(indexOfFloor(value), absent);
+    }
+
+    public OptionalLong ceiling(long value) {
+        return at(indexOfCeiling(value));
+    }
+
+    public long ceiling(long value, long absent) {
+        return at(indexOfCeiling(value), absent);
+    }
+
+    public OptionalLong higher(long value) {
+        return at(indexOfHigher(value));
+    }
+
+    public long higher(long value, long absent) {
+        return at(indexOfHigher(value), absent);
+    }
+
+    public long firstLong() {
+        if (isEmpty()) throw new NoSuchElementException();
+        return get(0);
+    }
+
+    public long lastLong() {
+        if (isEmpty()) throw new NoSuchElementException();
+        return get(size - 1);
+    }
+
+    public LongArraySet subSet(long fromElement, boolean fromInclusive, long toElement, boolean toInclusive) {
+        if (compare(fromElement, toElement) > 0) throw new IllegalArgumentException();
+        return !reverse
+                ? view(ceilingIndex(fromElement, fromInclusive), floorIndex(toElement, toInclusive) + 1)
+                : view(ceilingIndex(toElement, toInclusive), floorIndex(fromElement, fromInclusive) + 1);
+    }
+
+    public LongArraySet headSet(long toElement, boolean inclusive) {
+        return !reverse
+                ? view(offset, floorIndex(toElement, inclusive) + 1)
+                : view(ceilingIndex(toElement, inclusive), offset + size);
+    }
+
+    public LongArraySet tailSet(long fromElement, boolean inclusive) {
+        return !reverse
+                ? view(ceilingIndex(fromElement, inclusive), offset + size)
+                : view(offset, floorIndex(fromElement, inclusive) + 1);
+    }
+
+    public LongArraySet subSet(long fromElement, long toElement) {
+        return subSet(fromElement, true, toElement, false);
+    }
+
+    public LongArraySet headSet(long toElement) {
+        return headSet(toElement, false);
+    }
+
+    public LongArraySet tailSet(long fromElement) {
+        return tailSet(fromElement, true);
+    }
+
+    public long[] toLongArray() {
+        final long[] result = Arrays.copyOfRange(array, offset, offset + size);
+        if (reverse) {
+            for (int i = 0, j = size - 1; i < j; i++, j--) {
+                final long t = result[i];
+                result[i] = result[j];
+                result[j] = t;
+            }
+        }
+        return result;
+    }
+
+    public LongStream longStream() {
+        return !reverse
+                ? Arrays.stream(array, offset, offset + size)
+                : IntStream.range(0, size).mapToLong(this::get);
+    }
+
+    @Override
+    public PrimitiveIterator.OfLong iterator() {
+        return new PrimitiveIterator.OfLong() {
+            private int ind = 0;
+
+            @Override
+            public boolean hasNext() {
+                return ind < size;
+            }
+
+            @Override
+            public long nextLong() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return get(ind++);
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Long value && contains(value.longValue());
+    }
+
+    @Override
+    public Long lower(Long e) {
+        return boxedAt(indexOfLower(e));
+    }
+
+    @Override
+    public Long floor(Long e) {
+        return boxedAt(indexOfFloor(e));
+    }
+
+    @Override
+    public Long ceiling(Long e) {
+        return boxedAt(indexOfCeiling(e));
+    }
+
+    @Override
+    public Long higher(Long e) {
+        return boxedAt(indexOfHigher(e));
+    }
+
+    @Override
+    public Long first() {
+        return firstLong();
+    }
+
+    @Override
+    public Long last() {
+        return lastLong();
+    }
+
+    @Override
+    public Long pollFirst() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Long pollLast() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public LongArraySet descendingSet() {
+        return new LongArraySet(array, offset, size, !reverse);
+    }
+
+    @Override
+    public PrimitiveIterator.OfLong descendingIterator() {
+        return descendingSet().iterator();
+    }
+
+    @Override
+    public LongArraySet subSet(Long fromElement, boolean fromInclusive, Long toElement, boolean toInclusive) {
+        return subSet(fromElement.longValue(), fromInclusive, toElement.longValue(), toInclusive);
+    }
+
+    @Override
+    public LongArraySet headSet(Long toElement, boolean inclusive) {
+        return headSet(toElement.longValue(), inclusive);
+    }
+
+    @Override
+    public LongArraySet tailSet(Long fromElement, boolean inclusive) {
+        return tailSet(fromElement.longValue(), inclusive);
+    }
+
+    @Override
+    public LongArraySet subSet(Long fromElement, Long toElement) {
+        return subSet(fromElement, true, toElement, false);
+    }
+
+    @Override
+    public LongArraySet headSet(Long toElement) {
+        return headSet(toElement, false);
+    }
+
+    @Override
+    public LongArraySet tailSet(Long fromElement) {
+        return tailSet(fromElement, true);
+    }
+
+    @Override
+    public Comparator<? super Long> comparator() {
+        return reverse ? Collections.reverseOrder() : null;
+    }
+}
@@ -0,0 +1,47 @@
+package info.kgeorgiy.ja.berkutov.concurrent;
+
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Parallel operations over slices of {@code double[]} without boxing of elements.
+ * Slices are {@code values[from, to)}, {@code maximum} and {@code minimum} of empty slice
+ * throw {@link java.util.NoSuchElementException}.
+ */
+public interface DoubleIP {
+    double maximum(int threads, double[] values, int from, int to) throws InterruptedException;
+
+    double minimum(int threads, double[] values, int from, int to) throws InterruptedException;
+
+    double sum(int threads, double[] values, int from, int to) throws InterruptedException;
+
+    int count(int threads, double[] values, int from, int to, DoublePredicate predicate) throws InterruptedException;
+
+    double[] filter(int threads, double[] values, int from, int to, DoublePredicate predicate) throws InterruptedException;
+
+    double[] map(int threads, double[] values, int from, int to, DoubleUnaryOperator f) throws InterruptedException;
+
+    default double maximum(int threads, double[] values) throws InterruptedException {
+        return maximum(threads, values, 0, values.length);
+    }
+
+    default double minimum(int threads, double[] values) throws InterruptedException {
+        return minimum(threads, values, 0, values.length);
+    }
+
+    default double sum(int threads, double[] values) throws InterruptedException {
+        return sum(threads, values, 0, values.length);
+    }
+
+    default int count(int threads, double[] values, DoublePredicate predicate) throws InterruptedException {
+        return count(threads, values, 0, values.length, predicate);
+    }
+
+    default double[] filter(int threads, double[] values, DoublePredicate predicate) throws InterruptedException {
+        return filter(threads, values, 0, values.length, predicate);
+    }
+
+    default double[] map(int threads, double[] values, DoubleUnaryOperator f) throws InterruptedException {
+        return map(threads, values, 0, values.length, f);
+    }
+}
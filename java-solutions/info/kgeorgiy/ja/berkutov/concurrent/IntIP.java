@@ -0,0 +1,47 @@
+package info.kgeorgiy.ja.berkutov.concurrent;
+
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Parallel operations over slices of {@code int[]} without boxing of elements.
+ * Slices are {@code values[from, to)}, {@code maximum} and {@code minimum} of empty slice
+ * throw {@link java.util.NoSuchElementException}.
+ */
+public interface IntIP {
+    int maximum(int threads, int[] values, int from, int to) throws InterruptedException;
+
+    int minimum(int threads, int[] values, int from, int to) throws InterruptedException;
+
+    long sum(int threads, int[] values, int from, int to) throws InterruptedException;
+
+    int count(int threads, int[] values, int from, int to, IntPredicate predicate) throws InterruptedException;
+
+    int[] filter(int threads, int[] values, int from, int to, IntPredicate predicate) throws InterruptedException;
+
+    int[] map(int threads, int[] values, int from, int to, IntUnaryOperator f) throws InterruptedException;
+
+    default int maximum(int threads, int[] values) throws InterruptedException {
+        return maximum(threads, values, 0, values.length);
+    }
+
+    default int minimum(int threads, int[] values) throws InterruptedException {
+        return minimum(threads, values, 0, values.length);
+    }
+
+    default long sum(int threads, int[] values) throws InterruptedException {
+        return sum(threads, values, 0, values.length);
+    }
+
+    default int count(int threads, int[] values, IntPredicate predicate) throws InterruptedException {
+        return count(threads, values, 0, values.length, predicate);
+    }
+
+    default int[] filter(int threads, int[] values, IntPredicate predicate) throws InterruptedException {
+        return filter(threads, values, 0, values.length, predicate);
+    }
+
+    default int[] map(int threads, int[] values, IntUnaryOperator f) throws InterruptedException {
+        return map(threads, values, 0, values.length, f);
+    }
+}
@@ -4,24 +4,83 @@ import info.kgeorgiy.java.advanced.concurrent.ListIP;
 import info.kgeorgiy.java.advanced.mapper.ParallelMapper;
 
 import java.util.*;
-import java.util.function.Function;
-import java.util.function.Predicate;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.*;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 /**
- * Class for parallel processing of {@link List}.
+ * Class for parallel processing of {@link List} and of primitive arrays.
  */
-public class IterativeParallelism implements ListIP {
+public class IterativeParallelism implements ListIP, IntIP, LongIP, DoubleIP {
+    private static final int CHECK_STEP = 64;
+    private static final int CHUNKS_PER_THREAD = 4;
+
     private final ParallelMapper mapper;
+    private final ExecutorService executor;
+    private final int minGrain;
 
+    /**
+     * Creates instance starting new threads for every operation.
+     */
     public IterativeParallelism() {
-        mapper = null;
+        this(null, null);
     }
 
+    /**
+     * Creates instance running blocks of every operation with {@code mapper}.
+     */
     public IterativeParallelism(ParallelMapper mapper) {
+        this(mapper, null);
+    }
+
+    /**
+     * Creates instance submitting blocks of every operation to {@code executor},
+     * for example a virtual-thread-per-task executor or a long-living pool.
+     */
+    public IterativeParallelism(ExecutorService executor) {
+        this(null, Objects.requireNonNull(executor));
+    }
+
+    private IterativeParallelism(ParallelMapper mapper, ExecutorService executor) {
+        this(mapper, executor, 1);
+    }
+
+    private IterativeParallelism(ParallelMapper mapper, ExecutorService executor, int minGrain) {
         this.mapper = mapper;
+        this.executor = executor;
+        this.minGrain = minGrain;
+    }
+
+    /**
+     * Returns instance with the same execution mode that never gives a thread less than {@code minGrain} values.
+     * Operations on at most {@code minGrain} values run in the calling thread.
+     */
+    public IterativeParallelism withMinGrain(int minGrain) {
+        if (minGrain < 1) throw new IllegalArgumentException("Grain should be at least 1");
+        return new IterativeParallelism(mapper, executor, minGrain);
+    }
+
+    /**
+     * Returns instance backed by a process-wide pool of reusable daemon threads.
+     */
+    public static IterativeParallelism shared() {
+        return new IterativeParallelism(SharedPool.POOL);
+    }
+
+    private static class SharedPool {
+        private static final ExecutorService POOL = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "iterative-parallelism");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
     @Override
     public String join(int threads, List<?> values) throws InterruptedException {
@@ -55,11 +114,29 @@ public class IterativeParallelism implements ListIP {
     @Override
     public <T> boolean any(int threads, List<? extends T> values, Predicate<? super T> predicate)
             throws InterruptedException {
+        final AtomicBoolean found = new AtomicBoolean();
         return startTask(threads, values,
-                vals -> vals.anyMatch(predicate),
+                vals -> anyMatch(vals, predicate, found),
                 vals -> vals.anyMatch(b -> b));
     }
 
+    /**
+     * Checks block for a match, giving up as soon as another block has found one.
+     * The shared flag is read once per {@code CHECK_STEP} elements.
+     */
+    private static <T> boolean anyMatch(Stream<? extends T> values, Predicate<? super T> predicate,
+                                        AtomicBoolean found) {
+        final Iterator<? extends T> it = values.iterator();
+        for (int i = 0; it.hasNext(); i++) {
+            if (i % CHECK_STEP == 0 && found.get()) return false;
+            if (predicate.test(it.next())) {
+                found.set(true);
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public <T> T minimum(int threads, List<? extends T> values, Comparator<? super T> comparator)
             throws InterruptedException {
@@ -77,25 +154,59 @@ public class IterativeParallelism implements ListIP {
     @Override
     public <T> int count(int threads, List<? extends T> values, Predicate<? super T> predicate)
             throws InterruptedException {
-        return filter(threads, values, predicate).size();
+        return startTask(threads, values,
+                vals -> (int) vals.filter(predicate).count(),
+                vals -> vals.mapToInt(Integer::intValue).sum());
     }
 
-    private <T> List<Stream<? extends T>> splitData(int threads, List<? extends T> values) {
-        int valuesSize = values.size();
-        int blockSize = valuesSize / threads;
-        int dif = valuesSize % threads;
+    /**
+     * Maps every value with {@code f} and folds the results with associative {@code combiner}
+     * in one parallel pass: every thread folds its block starting from {@code identity},
+     * then partial results are folded in order of blocks.
+     */
+    public <T, R> R mapReduce(int threads, List<? extends T> values, Function<? super T, ? extends R> f,
+                              R identity, BinaryOperator<R> combiner) throws InterruptedException {
+        return startTask(threads, values,
+                vals -> vals.<R>map(f).reduce(identity, combiner),
+                vals -> vals.reduce(identity, combiner));
+    }
 
-        List<Stream<? extends T>> blocksOfData = new ArrayList<>();
+    /**
+     * Folds values with associative {@code combiner} in parallel, see {@link #mapReduce}.
+     */
+    public <T> T reduce(int threads, List<? extends T> values, T identity, BinaryOperator<T> combiner)
+            throws InterruptedException {
+        return mapReduce(threads, values, Function.identity(), identity, combiner);
+    }
+
+    /**
+     * Half-open range {@code [from, to)} of indices processed as one chunk.
+     */
+    private record Range(int from, int to) {
+    }
 
-        int l = 0;
-        for (int i = 0; i < Math.min(valuesSize, threads); i++) {
+    /**
+     * Splits values into up to {@code CHUNKS_PER_THREAD} chunks per thread, but not smaller than grain,
+     * so threads that finish early take more chunks.
+     */
+    private List<Range> splitRanges(int threads, int from, int to) {
+        int valuesSize = to - from;
+        int grains = valuesSize / minGrain + (valuesSize % minGrain == 0 ? 0 : 1);
+        int chunks = (int) Math.min(grains, (long) threads * CHUNKS_PER_THREAD);
+        int blockSize = chunks == 0 ? 0 : valuesSize / chunks;
+        int dif = chunks == 0 ? 0 : valuesSize % chunks;
+
+        List<Range> ranges = new ArrayList<>();
+
+        int l = from;
+        for (int i = 0; i < chunks; i++) {
             int r = l + blockSize + (dif > 0 ? 1 : 0);
             dif -= 1;
-            blocksOfData.add(values.subList(l, r).stream());
+            ranges.add(new Range(l, r));
             l = r;
         }
 
-        return blocksOfData;
+        return ranges;
     }
 
     private void joinAllThreads(List<Thread> threads) throws InterruptedException {
@@ -116,25 +227,231 @@ public class IterativeParallelism implements ListIP {
         // :NOTE: интеррапт всех потоков и джоин
     }
 
+    private void invokeAll(Runnable worker, int workers) throws InterruptedException {
+        final List<Callable<Void>> tasks = Collections.nCopies(workers, Executors.callable(worker, null));
+        for (Future<Void> future : executor.invokeAll(tasks)) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException cause) throw cause;
+                if (e.getCause() instanceof Error cause) throw cause;
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+    }
+
     private <T, P, R> R startTask(int numberThreads, List<? extends T> values,
                                   Function<Stream<? extends T>, P> func,
                                   Function<Stream<P>, R> collectFunc) throws InterruptedException {
+        final List<? extends T> list = values instanceof RandomAccess ? values : randomAccess(values);
+        final List<P> results = execute(numberThreads, 0, list.size(),
+                range -> func.apply(list.subList(range.from, range.to).stream()));
+        return collectFunc.apply(results.stream());
+    }
+
+    private <P> List<P> execute(int numberThreads, int from, int to,
+                                Function<Range, P> func) throws InterruptedException {
         if (numberThreads < 1) throw new IllegalArgumentException("Number of threads should be at least 1.");
 
-        final List<Stream<? extends T>> splitted = splitData(numberThreads, values);
-        final List<Thread> threads = new ArrayList<>();
-        final List<P> results;
+        final List<Range> splitted = splitRanges(numberThreads, from, to);
+        if (splitted.size() <= 1 || numberThreads == 1) {
+            final List<P> results = new ArrayList<>(splitted.size());
+            for (Range range : splitted) results.add(func.apply(range));
+            return results;
+        }
+        if (mapper != null) return mapper.map(func, splitted);
 
-        if (mapper == null) {
-            results = new ArrayList<>(Collections.nCopies(splitted.size(), null));
-            IntStream.range(0, splitted.size()).forEach(ind -> {
-                Thread thread = new Thread(() -> results.set(ind, func.apply(splitted.get(ind))));
+        final Object[] results = new Object[splitted.size()];
+        final AtomicInteger next = new AtomicInteger();
+        final Runnable worker = () -> {
+            for (int ind = next.getAndIncrement(); ind < splitted.size(); ind = next.getAndIncrement()) {
+                results[ind] = func.apply(splitted.get(ind));
+            }
+        };
+        final int workers = Math.min(numberThreads, splitted.size());
+        if (executor != null) {
+            invokeAll(worker, workers);
+        } else {
+            final List<Thread> threads = new ArrayList<>();
+            IntStream.range(0, workers).forEach(ind -> {
+                Thread thread = new Thread(worker);
                 threads.add(thread);
                 thread.start();
             });
-        } else results = mapper.map(func, splitted);
+            joinAllThreads(threads);
+        }
+        return castList(results);
+    }
 
-        joinAllThreads(threads);
-        return collectFunc.apply(results.stream());
+    @SuppressWarnings("unchecked")
+    private static <P> List<P> castList(Object[] results) {
+        return (List<P>) Arrays.asList(results);
+    }
+
+    /**
+     * Copies sequential list in one pass, so taking chunks does not walk it from the start every time.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> randomAccess(List<? extends T> values) {
+        return (List<T>) Arrays.asList(values.toArray());
+    }
+
+    private static void checkSlice(int length, int from, int to) {
+        Objects.checkFromToIndex(from, to, length);
+    }
+
+    private static void checkNotEmpty(int from, int to) {
+        if (from == to) throw new NoSuchElementException("Empty slice");
+    }
+
+    @Override
+    public int maximum(int threads, int[] values, int from, int to) throws InterruptedException {
+        checkSlice(values.length, from, to);
+        checkNotEmpty(from, to);
+        return execute(threads, from, to, r -> Arrays.stream(values, r.from, r.to).max().getAsInt())
+                .stream().mapToInt(Integer::intValue).max().getAsInt();
+    }
+
+    @Override
+    public int minimum(int threads, int[] values, int from, int to) throws InterruptedException {
+        checkSlice(values.length, from, to);
+        checkNotEmpty(from, to);
+        return execute(threads, from, to, r -> Arrays.stream(values, r.from, r.to).min().getAsInt())
+                .stream().mapToInt(Integer::intValue).min().getAsInt();
+    }
+
+    @Override
+    public long sum(int threads, int[] values, int from, int to) throws InterruptedException {
+        checkSlice(values.length, from, to);
+        return execute(threads, from, to, r -> Arrays.stream(values, r.from, r.to).asLongStream().sum())
+                .stream().mapToLong(Long::longValue).sum();
+    }
+
+    @Override
+    public int count(int threads, int[] values, int from, int to, IntPredicate predicate)
+            throws InterruptedException {
+        checkSlice(values.length, from, to);
+        return execute(threads, from, to, r -> (int) Arrays.stream(values, r.from, r.to).filter(predicate).count())
+                .stream().mapToInt(Integer::intValue).sum();
+    }
+
+    @Override
+    public int[] filter(int threads, int[] values, int from, int to, IntPredicate predicate)
+            throws InterruptedException {
+        checkSlice(values.length, from, to);
+        return execute(threads, from, to, r -> Arrays.stream(values, r.from, r.to).filter(predicate).toArray())
+                .stream().flatMapToInt(Arrays::stream).toArray();
+    }
+
+    @Override
+    public int[] map(int threads, int[] values, int from, int to, IntUnaryOperator f) throws InterruptedException {
+        checkSlice(values.length, from, to);
+        final int[] result = new int[to - from];
+        execute(threads, from, to, r -> {
+            for (int i = r.from; i < r.to; i++) result[i - from] = f.applyAsInt(values[i]);
+            return null;
+        });
+        return result;
+    }
+
+    @Override
+    public long maximum(int threads, long[] values, int from, int to) throws InterruptedException {
+        checkSlice(values.length, from, to);
+        checkNotEmpty(from, to);
+        return execute(threads, from, to, r -> Arrays.stream(values, r.from, r.to).max().getAsLong())
+                .stream().mapToLong(Long::longValue).max().getAsLong();
+    }
+
+    @Override
+    public long minimum(int threads, long[] values, int from, int to) throws InterruptedException {
+        checkSlice(values.length, from, to);
+        checkNotEmpty(from, to);
+        return execute(threads, from, to, r -> Arrays.stream(values, r.from, r.to).min().getAsLong())
+                .stream().mapToLong(Long::longValue).min().getAsLong();
+    }
+
+    @Override
+    public long sum(int threads, long[] values, int from, int to) throws InterruptedException {
+        checkSlice(values.length, from, to);
+        return execute(threads, from, to, r -> Arrays.stream(values, r.from, r.to).sum())
+                .stream().mapToLong(Long::longValue).sum();
+    }
+
+    @Override
+    public int count(int threads, long[] values, int from, int to, LongPredicate predicate)
+            throws InterruptedException {
+        checkSlice(values.length, from, to);
+        return execute(threads, from, to, r -> (int) Arrays.stream(values, r.from, r.to).filter(predicate).count())
+                .stream().mapToInt(Integer::intValue).sum();
+    }
+
+    @Override
+    public long[] filter(int threads, long[] values, int from, int to, LongPredicate predicate)
+            throws InterruptedException {
+        checkSlice(values.length, from, to);
+        return execute(threads, from, to, r -> Arrays.stream(values, r.from, r.to).filter(predicate).toArray())
+                .stream().flatMapToLong(Arrays::stream).toArray();
+    }
+
+    @Override
+    public long[] map(int threads, long[] values, int from, int to, LongUnaryOperator f) throws InterruptedException {
+        checkSlice(values.length, from, to);
+        final long[] result = new long[to - from];
+        execute(threads, from, to, r -> {
+            for (int i = r.from; i < r.to; i++) result[i - from] = f.applyAsLong(values[i]);
+            return null;
+        });
+        return result;
+    }
+
+    @Override
+    public double maximum(int threads, double[] values, int from, int to) throws InterruptedException {
+        checkSlice(values.length, from, to);
+        checkNotEmpty(from, to);
+        return execute(threads, from, to, r -> Arrays.stream(values, r.from, r.to).max().getAsDouble())
+                .stream().mapToDouble(Double::doubleValue).max().getAsDouble();
+    }
+
+    @Override
+    public double minimum(int threads, double[] values, int from, int to) throws InterruptedException {
+        checkSlice(values.length, from, to);
+        checkNotEmpty(from, to);
+        return execute(threads, from, to, r -> Arrays.stream(values, r.from, r.to).min().getAsDouble())
+                .stream().mapToDouble(Double::doubleValue).min().getAsDouble();
+    }
+
+    @Override
+    public double sum(int threads, double[] values, int from, int to) throws InterruptedException {
+        checkSlice(values.length, from, to);
+        return execute(threads, from, to, r -> Arrays.stream(values, r.from, r.to).sum())
+                .stream().mapToDouble(Double::doubleValue).sum();
+    }
+
+    @Override
+    public int count(int threads, double[] values, int from, int to, DoublePredicate predicate)
+            throws InterruptedException {
+        checkSlice(values.length, from, to);
+        return execute(threads, from, to, r -> (int) Arrays.stream(values, r.from, r.to).filter(predicate).count())
+                .stream().mapToInt(Integer::intValue).sum();
+    }
+
+    @Override
+    public double[] filter(int threads, double[] values, int from, int to, DoublePredicate predicate)
+            throws InterruptedException {
+        checkSlice(values.length, from, to);
+        return execute(threads, from, to, r -> Arrays.stream(values, r.from, r.to).filter(predicate).toArray())
+                .stream().flatMapToDouble(Arrays::stream).toArray();
+    }
+
+    @Override
+    public double[] map(int threads, double[] values, int from, int to, DoubleUnaryOperator f)
+            throws InterruptedException {
+        checkSlice(values.length, from, to);
+        final double[] result = new double[to - from];
+        execute(threads, from, to, r -> {
+            for (int i = r.from; i < r.to; i++) result[i - from] = f.applyAsDouble(values[i]);
+            return null;
+        });
+        return result;
     }
 }
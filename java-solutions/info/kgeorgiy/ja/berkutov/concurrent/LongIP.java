@@ -0,0 +1,47 @@
+package info.kgeorgiy.ja.berkutov.concurrent;
+
+import java.util.function.LongPredicate;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Parallel operations over slices of {@code long[]} without boxing of elements.
+ * Slices are {@code values[from, to)}, {@code maximum} and {@code minimum} of empty slice
+ * throw {@link java.util.NoSuchElementException}.
+ */
+public interface LongIP {
+    long maximum(int threads, long[] values, int from, int to) throws InterruptedException;
+
+    long minimum(int threads, long[] values, int from, int to) throws InterruptedException;
+
+    long sum(int threads, long[] values, int from, int to) throws InterruptedException;
+
+    int count(int threads, long[] values, int from, int to, LongPredicate predicate) throws InterruptedException;
+
+    long[] filter(int threads, long[] values, int from, int to, LongPredicate predicate) throws InterruptedException;
+
+    long[] map(int threads, long[] values, int from, int to, LongUnaryOperator f) throws InterruptedException;
+
+    default long maximum(int threads, long[] values) throws InterruptedException {
+        return maximum(threads, values, 0, values.length);
+    }
+
+    default long minimum(int threads, long[] values) throws InterruptedException {
+        return minimum(threads, values, 0, values.length);
+    }
+
+    default long sum(int threads, long[] values) throws InterruptedException {
+        return sum(threads, values, 0, values.length);
+    }
+
+    default int count(int threads, long[] values, LongPredicate predicate) throws InterruptedException {
+        return count(threads, values, 0, values.length, predicate);
+    }
+
+    default long[] filter(int threads, long[] values, LongPredicate predicate) throws InterruptedException {
+        return filter(threads, values, 0, values.length, predicate);
+    }
+
+    default long[] map(int threads, long[] values, LongUnaryOperator f) throws InterruptedException {
+        return map(threads, values, 0, values.length, f);
+    }
+}
@@ -0,0 +1,111 @@
+package info.kgeorgiy.ja.berkutov.concurrent;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Counters of a {@link ParallelMapperImpl}.
+ * High queue wait with low execution time means the mapper needs more threads, not faster functions.
+ */
+public class MapperStats implements ParallelMapperMXBean {
+    private static final int BUCKETS = 40;
+
+    private final int workers;
+    private final IntSupplier queueDepth;
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder executionNanos = new LongAdder();
+    private final AtomicLongArray waitHistogram = new AtomicLongArray(BUCKETS);
+    private final AtomicLongArray executionHistogram = new AtomicLongArray(BUCKETS);
+
+    MapperStats(int workers, IntSupplier queueDepth) {
+        this.workers = workers;
+        this.queueDepth = queueDepth;
+    }
+
+    void started(long waited) {
+        active.incrementAndGet();
+        waitNanos.add(waited);
+        waitHistogram.incrementAndGet(bucket(waited));
+    }
+
+    void finished(long nanos) {
+        active.decrementAndGet();
+        completed.increment();
+        executionNanos.add(nanos);
+        executionHistogram.incrementAndGet(bucket(nanos));
+    }
+
+    void failed() {
+        failed.increment();
+    }
+
+    void rejected(int tasks) {
+        rejected.add(tasks);
+    }
+
+    private static int bucket(long nanos) {
+        return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos / 1000));
+    }
+
+    private static long[] snapshot(AtomicLongArray histogram) {
+        final long[] result = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) result[i] = histogram.get(i);
+        return result;
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return queueDepth.getAsInt();
+    }
+
+    @Override
+    public int getActiveWorkers() {
+        return active.get();
+    }
+
+    @Override
+    public int getWorkers() {
+        return workers;
+    }
+
+    @Override
+    public long getTasksCompleted() {
+        return completed.sum();
+    }
+
+    @Override
+    public long getTasksFailed() {
+        return failed.sum();
+    }
+
+    @Override
+    public long getTasksRejected() {
+        return rejected.sum();
+    }
+
+    @Override
+    public long getQueueWaitNanos() {
+        return waitNanos.sum();
+    }
+
+    @Override
+    public long getExecutionNanos() {
+        return executionNanos.sum();
+    }
+
+    @Override
+    public long[] getQueueWaitHistogram() {
+        return snapshot(waitHistogram);
+    }
+
+    @Override
+    public long[] getExecutionHistogram() {
+        return snapshot(executionHistogram);
+    }
+}
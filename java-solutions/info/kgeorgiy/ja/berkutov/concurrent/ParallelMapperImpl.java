@@ -2,18 +2,65 @@ package info.kgeorgiy.ja.berkutov.concurrent;
 
 import info.kgeorgiy.java.advanced.mapper.ParallelMapper;
 
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
 import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.Function;
 import java.util.stream.IntStream;
 
+/**
+ * {@link ParallelMapper} with fixed number of threads.
+ * Workers take the next chunk from the concurrent {@code map} call that got the fewest chunks so far,
+ * oldest first, so calls are served in turn and a small call does not wait behind all chunks of a huge one.
+ * Number of queued chunks may be bounded; see {@link Overflow}.
+ * Counters are available through {@link #stats()} and, once registered, through JMX.
+ */
 public class ParallelMapperImpl implements ParallelMapper {
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    /**
+     * What {@code map} does when queued chunks would exceed capacity.
+     */
+    public enum Overflow {
+        /** Wait until workers take enough chunks. */
+        BLOCK,
+        /** Throw {@link RejectedExecutionException}. */
+        REJECT
+    }
+
     private final List<Thread> threadList = new ArrayList<>();
 
-    private final Queue<Runnable> taskQueue = new ArrayDeque<>();
-    private boolean closed = false;
+    private final Queue<Results<?>> taskQueue = new PriorityQueue<>(
+            Comparator.comparingInt((Results<?> call) -> call.started).thenComparingLong(call -> call.order));
+    private final Set<Results<?>> running = new HashSet<>();
+    private final int capacity;
+    private final Overflow overflow;
+    private int queued = 0;
+    private int blocked = 0;
+    private long submitted = 0;
+    private volatile boolean closed = false;
+    private final MapperStats stats;
+    private ObjectName mbean;
 
     public ParallelMapperImpl(int threads) {
+        this(threads, Integer.MAX_VALUE, Overflow.BLOCK);
+    }
+
+    /**
+     * Creates mapper that keeps at most {@code capacity} queued chunks, unless a single call has more.
+     */
+    public ParallelMapperImpl(int threads, int capacity, Overflow overflow) {
         if (threads < 1) throw new IllegalArgumentException("Number of threads should be at least 1");
+        if (capacity < 1) throw new IllegalArgumentException("Capacity should be at least 1");
+        this.capacity = capacity;
+        this.overflow = Objects.requireNonNull(overflow);
+        this.stats = new MapperStats(threads, () -> {
+            synchronized (taskQueue) {
+                return queued;
+            }
+        });
         Runnable workForThread = () -> {
             try {
                 while (!Thread.interrupted()) getTaskAndRun();
@@ -29,36 +76,110 @@ public class ParallelMapperImpl implements ParallelMapper {
 
     @Override
     public <T, R> List<R> map(Function<? super T, ? extends R> f, List<? extends T> args) throws InterruptedException {
-        final List<RuntimeException> exs = new ArrayList<>();
-        Results<R> results = new Results<>(args.size());
-
-        if (!closed) {
-            IntStream.range(0, args.size()).forEach(index -> {
-                synchronized (taskQueue) {
-                    taskQueue.add(() -> {
-                        try {
-                            results.set(index, f.apply(args.get(index)));
-                        } catch (RuntimeException e) {
-                            exs.add(e);
-                        }
-                    });
-                    taskQueue.notifyAll();
-                }
+        final int chunks = Math.min(args.size(), threadList.size() * CHUNKS_PER_THREAD);
+        Results<R> results = new Results<>(args.size(), chunks);
+
+        if (chunks == 0) return new ArrayList<>();
+
+        for (int i = 0; i < chunks; i++) {
+            final int l = (int) ((long) args.size() * i / chunks);
+            final int r = (int) ((long) args.size() * (i + 1) / chunks);
+            results.tasks.add(() -> {
+                if (!results.compute(f, args, l, r)) stats.failed();
             });
         }
-        if (!exs.isEmpty()) throw getCommon(exs);
+        synchronized (taskQueue) {
+            if (overflows(chunks) && overflow == Overflow.REJECT) {
+                stats.rejected(chunks);
+                throw new RejectedExecutionException("Queue is full: " + queued + " of " + capacity + " chunks");
+            }
+            blocked++;
+            try {
+                while (!closed && overflows(chunks)) taskQueue.wait();
+            } finally {
+                blocked--;
+            }
+            if (closed) throw new IllegalStateException("Mapper is closed");
+            results.order = submitted++;
+            results.enqueued = System.nanoTime();
+            taskQueue.add(results);
+            queued += chunks;
+            running.add(results);
+            if (chunks < threadList.size() && blocked == 0) IntStream.range(0, chunks).forEach(i -> taskQueue.notify());
+            else taskQueue.notifyAll();
+        }
 
-        return results.get();
+        try {
+            return results.get();
+        } finally {
+            synchronized (taskQueue) {
+                running.remove(results);
+                if (results.cancelled && taskQueue.remove(results)) {
+                    queued -= results.tasks.size();
+                    results.tasks.clear();
+                    if (blocked > 0) taskQueue.notifyAll();
+                }
+            }
+        }
     }
 
-    private RuntimeException getCommon(List<RuntimeException> exs) {
-        RuntimeException common = exs.get(0);
+    /**
+     * Checks whether {@code chunks} more chunks exceed capacity. A call of more chunks than capacity
+     * is accepted alone into the empty queue, so capacity does not limit parallelism of a call.
+     */
+    private boolean overflows(int chunks) {
+        return queued > 0 && queued + chunks > capacity;
+    }
+
+    private static Throwable getCommon(List<Throwable> exs) {
+        Throwable common = exs.get(0);
         IntStream.range(1, exs.size()).forEach(i -> common.addSuppressed(exs.get(i)));
         return common;
     }
 
+    /**
+     * Throws {@code e} if it is an {@link Error}, otherwise returns it as unchecked exception.
+     */
+    static RuntimeException unchecked(Throwable e) {
+        if (e instanceof Error error) throw error;
+        return e instanceof RuntimeException runtime ? runtime : new RuntimeException(e);
+    }
+
+    public MapperStats stats() {
+        return stats;
+    }
+
+    /**
+     * Registers {@link #stats() counters} in the platform MBean server
+     * as {@code info.kgeorgiy.ja.berkutov.concurrent:type=ParallelMapper,name=<name>} until the mapper is closed.
+     */
+    public synchronized ObjectName registerMBean(String name) throws JMException {
+        if (mbean != null) throw new IllegalStateException("Already registered as " + mbean);
+        final ObjectName objectName = new ObjectName("info.kgeorgiy.ja.berkutov.concurrent:type=ParallelMapper,name="
+                + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(stats, objectName);
+        mbean = objectName;
+        return objectName;
+    }
+
     @Override
     public void close() {
+        synchronized (this) {
+            if (mbean != null) {
+                try {
+                    ManagementFactory.getPlatformMBeanServer().unregisterMBean(mbean);
+                } catch (JMException ignored) {
+                }
+                mbean = null;
+            }
+        }
+        synchronized (taskQueue) {
+            closed = true;
+            taskQueue.clear();
+            queued = 0;
+            running.forEach(Results::abort);
+            taskQueue.notifyAll();
+        }
         for (Thread thread : threadList) {
             thread.interrupt();
             try {
@@ -66,34 +187,96 @@ public class ParallelMapperImpl implements ParallelMapper {
             } catch (InterruptedException ignored) {
             }
         }
-        closed = true;
     }
 
+    /**
+     * Results of one {@code map} call, filled by contiguous chunks of arguments.
+     * The first exception or error cancels the call: the caller wakes up at once and chunks stop at the next argument.
+     */
     private static class Results<R> {
-        private final List<R> res;
-        private int done = 0;
+        private final Queue<Runnable> tasks = new ArrayDeque<>();
+        private int started = 0;
+        private long order;
+        private long enqueued;
+        private final Object[] res;
+        private final List<Throwable> exs = new ArrayList<>();
+        private int remaining;
+        private volatile boolean cancelled = false;
+        private boolean aborted = false;
 
-        public Results(int size) {
-            res = new ArrayList<>(Collections.nCopies(size, null));
+        public Results(int size, int chunks) {
+            res = new Object[size];
+            remaining = chunks;
         }
 
-        public synchronized List<R> get() throws InterruptedException {
-            while (done < res.size()) wait(0L, 0);
-            return res;
+        /**
+         * Returns {@code false} if {@code f} threw for some argument.
+         */
+        public <T> boolean compute(Function<? super T, ? extends R> f, List<? extends T> args, int from, int to) {
+            boolean succeeded = true;
+            try {
+                for (int i = from; i < to && !cancelled; i++) {
+                    try {
+                        res[i] = f.apply(args.get(i));
+                    } catch (Throwable e) {
+                        succeeded = false;
+                        fail(e);
+                    }
+                }
+            } finally {
+                done();
+            }
+            return succeeded;
+        }
+
+        private synchronized void fail(Throwable e) {
+            exs.add(e);
+            cancelled = true;
+            notify();
         }
 
-        public synchronized void set(int ind, R result) {
-            res.set(ind, result);
-            if (done++ == res.size()-1) notify();
+        private synchronized void done() {
+            if (--remaining == 0) notify();
+        }
+
+        private synchronized void abort() {
+            aborted = true;
+            cancelled = true;
+            notify();
+        }
+
+        @SuppressWarnings("unchecked")
+        public synchronized List<R> get() throws InterruptedException {
+            try {
+                while (remaining > 0 && !cancelled) wait();
+            } catch (InterruptedException e) {
+                cancelled = true;
+                throw e;
+            }
+            if (!exs.isEmpty()) throw unchecked(getCommon(exs));
+            if (aborted) throw new IllegalStateException("Mapper is closed");
+            return (List<R>) new ArrayList<>(Arrays.asList(res));
         }
     }
 
     private void getTaskAndRun() throws InterruptedException {
         Runnable task;
+        final long start;
         synchronized (taskQueue) {
             while (taskQueue.isEmpty()) taskQueue.wait();
-            task = taskQueue.poll();
+            final Results<?> call = taskQueue.poll();
+            start = System.nanoTime();
+            stats.started(start - call.enqueued);
+            task = call.tasks.poll();
+            call.started++;
+            if (!call.tasks.isEmpty()) taskQueue.add(call);
+            queued--;
+            if (blocked > 0) taskQueue.notifyAll();
+        }
+        try {
+            task.run();
+        } finally {
+            stats.finished(System.nanoTime() - start);
         }
-        task.run();
     }
 }
@@ -0,0 +1,27 @@
+package info.kgeorgiy.ja.berkutov.concurrent;
+
+/**
+ * Management interface of {@link ParallelMapperImpl}. A task is one chunk of a {@code map} call.
+ * Histograms have power-of-two buckets in microseconds: bucket {@code i} counts durations below {@code 2^i}.
+ */
+public interface ParallelMapperMXBean {
+    int getQueueDepth();
+
+    int getActiveWorkers();
+
+    int getWorkers();
+
+    long getTasksCompleted();
+
+    long getTasksFailed();
+
+    long getTasksRejected();
+
+    long getQueueWaitNanos();
+
+    long getExecutionNanos();
+
+    long[] getQueueWaitHistogram();
+
+    long[] getExecutionHistogram();
+}
@@ -0,0 +1,219 @@
+package info.kgeorgiy.ja.berkutov.concurrent;
+
+import info.kgeorgiy.java.advanced.mapper.ParallelMapper;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Parallel operations of {@link IterativeParallelism} over sources read incrementally,
+ * such as {@link java.io.BufferedReader#lines()}.
+ * Every worker thread takes the next batch of {@code BATCH} values from the source under a lock,
+ * so only batches being processed and the result are kept in memory.
+ * {@link java.util.stream.Stream} and {@link Spliterator} sources are passed as
+ * {@link java.util.stream.Stream#iterator()} and {@link Spliterators#iterator(Spliterator)}.
+ */
+public class StreamingParallelism {
+    private static final int BATCH = 1024;
+
+    private final ParallelMapper mapper;
+
+    /**
+     * Creates instance starting new threads for every operation.
+     */
+    public StreamingParallelism() {
+        this.mapper = null;
+    }
+
+    /**
+     * Creates instance running workers of every operation with {@code mapper}.
+     */
+    public StreamingParallelism(ParallelMapper mapper) {
+        this.mapper = Objects.requireNonNull(mapper);
+    }
+
+    public String join(int threads, Iterator<?> values) throws InterruptedException {
+        return String.join("", process(threads, values,
+                batch -> batch.stream().map(Object::toString).collect(Collectors.joining()), null, null));
+    }
+
+    public <T> List<T> filter(int threads, Iterator<? extends T> values, Predicate<? super T> predicate)
+            throws InterruptedException {
+        return concat(process(threads, values,
+                batch -> batch.stream().filter(predicate).collect(Collectors.<T>toList()), null, null));
+    }
+
+    public <T, U> List<U> map(int threads, Iterator<? extends T> values, Function<? super T, ? extends U> f)
+            throws InterruptedException {
+        return concat(process(threads, values,
+                batch -> batch.stream().map(f).collect(Collectors.<U>toList()), null, null));
+    }
+
+    /**
+     * Returns maximal value or {@code null} if the source is empty.
+     */
+    public <T> T maximum(int threads, Iterator<? extends T> values, Comparator<? super T> comparator)
+            throws InterruptedException {
+        return minimum(threads, values, comparator.reversed());
+    }
+
+    /**
+     * Returns minimal value or {@code null} if the source is empty.
+     */
+    public <T> T minimum(int threads, Iterator<? extends T> values, Comparator<? super T> comparator)
+            throws InterruptedException {
+        final BinaryOperator<T> min = BinaryOperator.minBy(comparator);
+        return this.<T, T>process(threads, values, batch -> batch.stream().reduce(min).orElseThrow(), min, null)
+                .stream().reduce(min).orElse(null);
+    }
+
+    /**
+     * Checks values for a match. Workers stop taking batches from the source once a match is found.
+     */
+    public <T> boolean any(int threads, Iterator<? extends T> values, Predicate<? super T> predicate)
+            throws InterruptedException {
+        return process(threads, values, batch -> batch.stream().anyMatch(predicate), Boolean::logicalOr, b -> b)
+                .contains(true);
+    }
+
+    public <T> boolean all(int threads, Iterator<? extends T> values, Predicate<? super T> predicate)
+            throws InterruptedException {
+        return !any(threads, values, Predicate.not(predicate));
+    }
+
+    public <T> long count(int threads, Iterator<? extends T> values, Predicate<? super T> predicate)
+            throws InterruptedException {
+        return process(threads, values, batch -> batch.stream().filter(predicate).count(), Long::sum, null)
+                .stream().mapToLong(Long::longValue).sum();
+    }
+
+    private static <T> List<T> concat(List<List<T>> parts) {
+        return parts.stream().flatMap(List::stream).collect(Collectors.toList());
+    }
+
+    /**
+     * Consecutive values of the source with number of the batch.
+     */
+    private record Batch<T>(int index, List<T> values) {
+    }
+
+    /**
+     * Source shared by workers. Once it throws or some worker stops, no more batches are given.
+     */
+    private static class Source<T> {
+        private final Iterator<? extends T> iterator;
+        private final AtomicBoolean stopped = new AtomicBoolean();
+        private int index = 0;
+
+        Source(Iterator<? extends T> iterator) {
+            this.iterator = iterator;
+        }
+
+        synchronized Batch<T> next() {
+            if (stopped.get()) return null;
+            try {
+                final List<T> values = new ArrayList<>(BATCH);
+                while (values.size() < BATCH && iterator.hasNext()) values.add(iterator.next());
+                return values.isEmpty() ? null : new Batch<>(index++, values);
+            } catch (RuntimeException e) {
+                stop();
+                throw e;
+            }
+        }
+
+        void stop() {
+            stopped.set(true);
+        }
+    }
+
+    /**
+     * Applies {@code func} to batches of the source in {@code threads} workers.
+     * Without {@code merge}, returns results of all batches in source order.
+     * With {@code merge}, every worker folds results of its batches, and one result per busy worker is returned.
+     * Workers stop taking batches once some result satisfies {@code stop}.
+     */
+    private <T, P> List<P> process(int threads, Iterator<? extends T> values, Function<List<T>, P> func,
+                                   BinaryOperator<P> merge, Predicate<P> stop) throws InterruptedException {
+        if (threads < 1) throw new IllegalArgumentException("Number of threads should be at least 1");
+        final Source<T> source = new Source<>(values);
+        final List<P> ordered = new ArrayList<>();
+        final Function<Integer, List<P>> worker = ignored -> {
+            final List<P> folded = new ArrayList<>(1);
+            try {
+                for (Batch<T> batch = source.next(); batch != null; batch = source.next()) {
+                    final P result = func.apply(batch.values);
+                    if (stop != null && stop.test(result)) source.stop();
+                    if (merge == null) {
+                        synchronized (ordered) {
+                            while (ordered.size() <= batch.index) ordered.add(null);
+                            ordered.set(batch.index, result);
+                        }
+                    } else if (folded.isEmpty()) {
+                        folded.add(result);
+                    } else {
+                        folded.set(0, merge.apply(folded.get(0), result));
+                    }
+                }
+            } catch (RuntimeException e) {
+                source.stop();
+                throw e;
+            }
+            return folded;
+        };
+
+        final List<Integer> workers = IntStream.range(0, threads).boxed().toList();
+        final List<List<P>> folded;
+        try {
+            folded = mapper != null ? mapper.map(worker, workers) : runThreads(worker, workers, source::stop);
+        } catch (InterruptedException e) {
+            source.stop();
+            throw e;
+        }
+        return merge == null ? ordered : concat(folded);
+    }
+
+    /**
+     * Runs workers in new threads. If interrupted, calls {@code stop} so that workers finish and joins them.
+     */
+    private static <P> List<List<P>> runThreads(Function<Integer, List<P>> worker, List<Integer> workers,
+                                                Runnable stop) throws InterruptedException {
+        final List<List<P>> results = new ArrayList<>(Collections.nCopies(workers.size(), null));
+        final List<RuntimeException> exceptions = Collections.synchronizedList(new ArrayList<>());
+        final List<Thread> threads = new ArrayList<>();
+        for (int i : workers) {
+            final Thread thread = new Thread(() -> {
+                try {
+                    results.set(i, worker.apply(i));
+                } catch (RuntimeException e) {
+                    exceptions.add(e);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (int i = 0; i < threads.size(); i++) try {
+            threads.get(i).join();
+        } catch (InterruptedException e) {
+            stop.run();
+            for (int j = i; j < threads.size(); j++) {
+                Thread curThread = threads.get(j);
+                curThread.interrupt();
+                try {
+                    curThread.join();
+                } catch (InterruptedException sup) {
+                    e.addSuppressed(sup);
+                }
+            }
+            throw e;
+        }
+        if (!exceptions.isEmpty()) {
+            final RuntimeException common = exceptions.get(0);
+            exceptions.subList(1, exceptions.size()).forEach(common::addSuppressed);
+            throw common;
+        }
+        return results;
+    }
+}
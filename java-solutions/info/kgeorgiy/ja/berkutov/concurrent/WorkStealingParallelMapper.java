@@ -0,0 +1,196 @@
+package info.kgeorgiy.ja.berkutov.concurrent;
+
+import info.kgeorgiy.java.advanced.mapper.ParallelMapper;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * {@link ParallelMapper} where every worker has its own lock-free deque.
+ * A {@code map} call is split into contiguous ranges of arguments, dealt round-robin to workers starting
+ * from a rotating one. Idle workers that got a range are woken up, and for every busy one another idle worker
+ * is woken up to steal.
+ * Workers take tasks from the head of their deque and steal from the tail of others when it is empty.
+ */
+public class WorkStealingParallelMapper implements ParallelMapper {
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final Worker[] workers;
+    private final Set<Call<?>> calls = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger nextWorker = new AtomicInteger();
+    private volatile boolean closed = false;
+
+    public WorkStealingParallelMapper(int threads) {
+        if (threads < 1) throw new IllegalArgumentException("Number of threads should be at least 1");
+        workers = new Worker[threads];
+        for (int i = 0; i < threads; i++) workers[i] = new Worker(i);
+        for (Worker worker : workers) worker.thread.start();
+    }
+
+    @Override
+    public <T, R> List<R> map(Function<? super T, ? extends R> f, List<? extends T> args) throws InterruptedException {
+        if (args.isEmpty()) {
+            if (closed) throw new IllegalStateException("Mapper is closed");
+            return new ArrayList<>();
+        }
+
+        final Call<R> call = new Call<>(args.size(), workers.length);
+        calls.add(call);
+        try {
+            // checked after registering, so a concurrent close either is seen here or aborts the call
+            if (closed) throw new IllegalStateException("Mapper is closed");
+            final int first = Math.floorMod(nextWorker.getAndIncrement(), workers.length);
+            for (int i = 0; i < call.chunks; i++) {
+                final int from = (int) ((long) args.size() * i / call.chunks);
+                final int to = (int) ((long) args.size() * (i + 1) / call.chunks);
+                workers[(first + i) % workers.length].deque.addLast(() -> call.run(f, args, from, to));
+            }
+            wakeUp(first, Math.min(call.chunks, workers.length));
+            return call.get();
+        } finally {
+            calls.remove(call);
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        for (Worker worker : workers) worker.thread.interrupt();
+        for (Worker worker : workers) {
+            try {
+                worker.thread.join();
+            } catch (InterruptedException ignored) {
+            }
+        }
+        calls.forEach(Call::abort);
+    }
+
+    /**
+     * Wakes up {@code count} workers starting from {@code first} that got tasks if they are idle.
+     * For each of them that is busy, wakes up one of other idle workers, so that its tasks are stolen.
+     */
+    private void wakeUp(int first, int count) {
+        final boolean[] woken = new boolean[workers.length];
+        int busy = 0;
+        for (int i = 0; i < count; i++) {
+            final Worker worker = workers[(first + i) % workers.length];
+            woken[worker.index] = true;
+            if (worker.idle) LockSupport.unpark(worker.thread);
+            else busy++;
+        }
+        for (int i = 0; i < workers.length && busy > 0; i++) {
+            if (!woken[i] && workers[i].idle) {
+                LockSupport.unpark(workers[i].thread);
+                busy--;
+            }
+        }
+    }
+
+    private Runnable steal(int thief) {
+        final int start = ThreadLocalRandom.current().nextInt(workers.length);
+        for (int i = 0; i < workers.length; i++) {
+            final Worker victim = workers[(start + i) % workers.length];
+            if (victim.index == thief) continue;
+            final Runnable task = victim.deque.pollLast();
+            if (task != null) return task;
+        }
+        return null;
+    }
+
+    private class Worker {
+        private final int index;
+        private final Deque<Runnable> deque = new ConcurrentLinkedDeque<>();
+        private final Thread thread;
+        private volatile boolean idle = false;
+
+        Worker(int index) {
+            this.index = index;
+            this.thread = new Thread(this::work);
+        }
+
+        private Runnable next() {
+            final Runnable own = deque.pollFirst();
+            return own != null ? own : steal(index);
+        }
+
+        private void work() {
+            while (!Thread.currentThread().isInterrupted()) {
+                Runnable task = next();
+                if (task == null) {
+                    idle = true;
+                    // re-check after publishing idleness, so a concurrent submitter either sees it or we see its tasks
+                    task = next();
+                    if (task == null) LockSupport.park(this);
+                    idle = false;
+                }
+                if (task != null) task.run();
+            }
+        }
+    }
+
+    /**
+     * Results of one {@code map} call, filled by {@code chunks} range tasks.
+     */
+    private static class Call<R> {
+        private final Object[] results;
+        private final int chunks;
+        private final AtomicInteger remaining;
+        private final List<Throwable> exceptions = Collections.synchronizedList(new ArrayList<>());
+        private volatile boolean cancelled = false;
+        private boolean aborted = false;
+
+        Call(int size, int threads) {
+            results = new Object[size];
+            chunks = Math.min(size, threads * CHUNKS_PER_THREAD);
+            remaining = new AtomicInteger(chunks);
+        }
+
+        /**
+         * Applies {@code f} to arguments from {@code from} to {@code to} until the call fails.
+         * The first exception or error wakes the caller.
+         */
+        <T> void run(Function<? super T, ? extends R> f, List<? extends T> args, int from, int to) {
+            try {
+                for (int i = from; i < to && !cancelled; i++) results[i] = f.apply(args.get(i));
+            } catch (Throwable e) {
+                exceptions.add(e);
+                cancelled = true;
+                synchronized (this) {
+                    notify();
+                }
+            } finally {
+                if (remaining.decrementAndGet() == 0) {
+                    synchronized (this) {
+                        notify();
+                    }
+                }
+            }
+        }
+
+        synchronized void abort() {
+            aborted = true;
+            notify();
+        }
+
+        @SuppressWarnings("unchecked")
+        List<R> get() throws InterruptedException {
+            synchronized (this) {
+                while (remaining.get() > 0 && !aborted && !cancelled) wait();
+            }
+            if (!exceptions.isEmpty()) {
+                synchronized (exceptions) {
+                    final Throwable common = exceptions.get(0);
+                    exceptions.subList(1, exceptions.size()).forEach(common::addSuppressed);
+                    throw ParallelMapperImpl.unchecked(common);
+                }
+            }
+            if (remaining.get() > 0) throw new IllegalStateException("Mapper is closed");
+            return (List<R>) new ArrayList<>(Arrays.asList(results));
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package info.kgeorgiy.ja.berkutov.walk;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Durable progress of a walk: output lines of the first {@code entries} files of root number {@code root}
+ * and all previous roots occupy the first {@code position} bytes of output, lines of this root start at
+ * {@code rootStart}. Input line {@code rootName} and path {@code lastPath} of the last written file
+ * let resumed walk check that it skips the same files.
+ */
+public record Checkpoint(int root, String rootName, long rootStart, long entries, String lastPath, long position) {
+    private static final int MAGIC = 0x57434B32;
+
+    /**
+     * Thrown when the walk does not visit the files the checkpoint was written for.
+     */
+    public static class StaleException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        StaleException(final String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Reads checkpoint from {@code file} or returns {@code null} if there is none.
+     */
+    static Checkpoint read(final Path file) throws IOException {
+        try (final DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            if (in.readInt() != MAGIC) throw new IOException("Malformed checkpoint " + file);
+            return new Checkpoint(in.readInt(), in.readUTF(), in.readLong(), in.readLong(), in.readUTF(),
+                    in.readLong());
+        } catch (final NoSuchFileException e) {
+            return null;
+        } catch (final EOFException e) {
+            throw new IOException("Malformed checkpoint " + file);
+        }
+    }
+
+    /**
+     * Atomically replaces checkpoint in {@code file}. New checkpoint is forced to disk before replacing.
+     */
+    void write(final Path file) throws IOException {
+        final Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (final FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+             final DataOutputStream out = new DataOutputStream(Channels.newOutputStream(channel))) {
+            out.writeInt(MAGIC);
+            out.writeInt(root);
+            out.writeUTF(rootName);
+            out.writeLong(rootStart);
+            out.writeLong(entries);
+            out.writeUTF(lastPath);
+            out.writeLong(position);
+            out.flush();
+            channel.force(false);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,22 @@
+package info.kgeorgiy.ja.berkutov.walk;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Incremental hash function of file contents.
+ */
+public interface Digest {
+    void update(byte[] bytes, int offset, int length);
+
+    /**
+     * Consumes all remaining bytes of {@code buffer}.
+     */
+    void update(ByteBuffer buffer);
+
+    /**
+     * Returns hash of consumed bytes and resets the digest.
+     */
+    byte[] digest();
+
+    void reset();
+}
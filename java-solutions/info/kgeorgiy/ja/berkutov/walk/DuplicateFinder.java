@@ -0,0 +1,153 @@
+package info.kgeorgiy.ja.berkutov.walk;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Visitor collecting regular files and grouping the ones with equal contents.
+ * Files are compared by size first, then by digest of their first and last blocks,
+ * and only the remaining candidates are read completely.
+ * Digests of all candidates of a stage are computed in parallel.
+ */
+public class DuplicateFinder extends SimpleFileVisitor<Path> {
+    private static final int BLOCK = 1 << 12;
+
+    private final Map<Long, List<Path>> bySize = new LinkedHashMap<>();
+    private final Set<Object> seen = new HashSet<>();
+    private final int threads;
+    private final ThreadLocal<FileHasher> hashers;
+
+    /**
+     * Group of files with equal contents.
+     *
+     * @param hash  hex digest of contents
+     * @param size  size of each file
+     * @param files files in order of traversal
+     */
+    public record Group(String hash, long size, List<Path> files) {
+    }
+
+    @FunctionalInterface
+    private interface Digester {
+        byte[] apply(FileHasher hasher, Path path) throws IOException;
+    }
+
+    public DuplicateFinder(final int threads, final Supplier<FileHasher> hasher) {
+        if (threads < 1) throw new IllegalArgumentException("Number of threads should be at least 1");
+        this.threads = threads;
+        this.hashers = ThreadLocal.withInitial(hasher);
+    }
+
+    /**
+     * Collects regular file once. Another path of the same file key (hard link, or alias with followed links)
+     * or the same path visited from overlapping roots is the same file, not its duplicate.
+     */
+    @Override
+    public FileVisitResult visitFile(final Path path, final BasicFileAttributes attrs) {
+        final Object id = attrs.fileKey() != null ? attrs.fileKey() : path.toAbsolutePath().normalize();
+        if (attrs.isRegularFile() && seen.add(id)) bySize.computeIfAbsent(attrs.size(), s -> new ArrayList<>()).add(path);
+        return FileVisitResult.CONTINUE;
+    }
+
+    @Override
+    public FileVisitResult visitFileFailed(final Path path, final IOException exc) {
+        System.out.println("File visiting failed: " + exc.getMessage());
+        return FileVisitResult.CONTINUE;
+    }
+
+    /**
+     * Returns groups of at least two files with equal contents, largest files first.
+     */
+    public List<Group> find() throws InterruptedException {
+        final List<Group> groups = new ArrayList<>();
+        final ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Candidates> partial = new ArrayList<>();
+            for (final Map.Entry<Long, List<Path>> sized : bySize.entrySet()) {
+                if (sized.getValue().size() < 2) continue;
+                partial.add(submit(pool, sized.getKey(), sized.getValue(), (h, p) -> h.partialDigest(p, BLOCK)));
+            }
+            final List<Candidates> full = new ArrayList<>();
+            for (final Candidates candidates : partial) {
+                for (final Map.Entry<String, List<Path>> group : candidates.groups().entrySet()) {
+                    if (group.getValue().size() < 2) continue;
+                    if (candidates.size <= 2L * BLOCK) {
+                        groups.add(new Group(group.getKey(), candidates.size, group.getValue()));
+                    } else {
+                        full.add(submit(pool, candidates.size, group.getValue(), FileHasher::digest));
+                    }
+                }
+            }
+            for (final Candidates candidates : full) {
+                candidates.groups().forEach((hash, files) -> {
+                    if (files.size() > 1) groups.add(new Group(hash, candidates.size, files));
+                });
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        groups.sort(Comparator.comparingLong(Group::size).reversed());
+        return groups;
+    }
+
+    /**
+     * Files of equal size and their digests being computed.
+     */
+    private record Candidates(long size, List<Path> files, List<Future<byte[]>> digests) {
+        /**
+         * Waits for digests and groups files by them. Files failed to hash are left out.
+         */
+        Map<String, List<Path>> groups() throws InterruptedException {
+            final Map<String, List<Path>> groups = new HashMap<>();
+            for (int i = 0; i < files.size(); i++) {
+                final byte[] digest;
+                try {
+                    digest = digests.get(i).get();
+                } catch (final ExecutionException e) {
+                    throw new AssertionError("Unexpected hashing error", e.getCause());
+                }
+                if (digest != null) {
+                    groups.computeIfAbsent(HexFormat.of().formatHex(digest), h -> new ArrayList<>()).add(files.get(i));
+                }
+            }
+            return groups;
+        }
+    }
+
+    /**
+     * Schedules digests of {@code files} without waiting for them,
+     * so that digests of all candidates are computed in parallel.
+     */
+    private Candidates submit(final ExecutorService pool, final long size, final List<Path> files,
+                              final Digester digester) {
+        final List<Future<byte[]>> digests = new ArrayList<>(files.size());
+        for (final Path file : files) {
+            digests.add(pool.submit(() -> {
+                try {
+                    return digester.apply(hashers.get(), file);
+                } catch (final IOException | SecurityException e) {
+                    System.out.println("File hashing failed: " + e.getMessage());
+                    return null;
+                }
+            }));
+        }
+        return new Candidates(size, files, digests);
+    }
+}
@@ -0,0 +1,79 @@
+package info.kgeorgiy.ja.berkutov.walk;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Writes groups of files with equal contents found under roots listed in input file.
+ * Each group is a block of {@code <hash> <path>} lines, groups are separated by empty lines.
+ * Accepts the options of {@link RecursiveWalk} that choose how files are read and hashed:
+ * {@code [-threads <n>] [-io stream|channel|mmap] [-buffer <bytes>] [-map-threshold <bytes>]
+ * [-algorithm sha-256|sha-1|md5|crc32c|xxh64] [-follow-links]}.
+ */
+public class DuplicateWalk {
+    public static void main(final String[] args) {
+        final WalkOptions options;
+        try {
+            options = WalkOptions.parse(args, WalkOptions.HASHING);
+        } catch (final IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            return;
+        }
+
+        try {
+            final Path inputFile = Path.of(options.input);
+            final Path outputFile = Path.of(options.output);
+            final DuplicateFinder finder = new DuplicateFinder(options.threads, options.hasher());
+            try (final BufferedReader reader = Files.newBufferedReader(inputFile)) {
+                String name;
+                while ((name = reader.readLine()) != null)
+                    try {
+                        Files.walkFileTree(Path.of(name), options.visitOptions(), Integer.MAX_VALUE, finder);
+                    } catch (final InvalidPathException e) {
+                        printException("Invalid file name", e);
+                    } catch (final IOException | SecurityException e) {
+                        printException("Error during the walking", e);
+                    }
+            } catch (final IOException | SecurityException e) {
+                printException("Can not read input file", e);
+                return;
+            }
+
+            final List<DuplicateFinder.Group> groups;
+            try {
+                groups = finder.find();
+            } catch (final InterruptedException e) {
+                printException("Search interrupted", e);
+                return;
+            }
+
+            final Path parent = outputFile.getParent();
+            try {
+                if (parent != null && Files.notExists(parent)) Files.createDirectories(parent);
+            } catch (final IOException | SecurityException ignored) {
+            }
+            try (final BufferedWriter writer = Files.newBufferedWriter(outputFile)) {
+                for (final DuplicateFinder.Group group : groups) {
+                    for (final Path file : group.files()) {
+                        writer.write(group.hash() + " " + file);
+                        writer.newLine();
+                    }
+                    writer.newLine();
+                }
+            } catch (final IOException | SecurityException e) {
+                printException("Error writing output file", e);
+            }
+        } catch (final InvalidPathException e) {
+            printException("Invalid file path", e);
+        }
+    }
+
+    static private void printException(final String message, final Exception e) {
+        System.out.println(message + ": " + e.getMessage());
+    }
+}
@@ -0,0 +1,121 @@
+package info.kgeorgiy.ja.berkutov.walk;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HexFormat;
+
+/**
+ * Digest and read buffer of a single hashing thread.
+ */
+public class FileHasher {
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+    public static final long DEFAULT_MAP_THRESHOLD = 1L << 26;
+    private static final long MAP_CHUNK = 1L << 30;
+
+    /**
+     * The way file contents are read.
+     */
+    public enum ReadMode {
+        /** {@link InputStream} into a heap array. */
+        STREAM,
+        /** {@link FileChannel} into a direct buffer. */
+        CHANNEL,
+        /** {@link FileChannel#map memory mapping} for files not smaller than the threshold, channel otherwise. */
+        MMAP
+    }
+
+    private final HashAlgorithm algorithm;
+    private final Digest md;
+    private final ReadMode mode;
+    private final long mapThreshold;
+    private final byte[] buffer;
+    private final ByteBuffer directBuffer;
+
+    public FileHasher() {
+        this(HashAlgorithm.SHA_256, ReadMode.STREAM, DEFAULT_BUFFER_SIZE, DEFAULT_MAP_THRESHOLD);
+    }
+
+    public FileHasher(final HashAlgorithm algorithm, final ReadMode mode, final int bufferSize,
+                      final long mapThreshold) {
+        if (bufferSize < 1) throw new IllegalArgumentException("Buffer size should be positive");
+        this.algorithm = algorithm;
+        this.md = algorithm.create();
+        this.mode = mode;
+        this.mapThreshold = mapThreshold;
+        this.buffer = mode == ReadMode.STREAM ? new byte[bufferSize] : null;
+        this.directBuffer = mode == ReadMode.STREAM ? null : ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    public String hash(final Path path) throws IOException {
+        return HexFormat.of().formatHex(digest(path));
+    }
+
+    public byte[] digest(final Path path) throws IOException {
+        md.reset();
+        if (mode == ReadMode.STREAM) {
+            readStream(path);
+        } else {
+            try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                final long size = channel.size();
+                if (mode == ReadMode.MMAP && size >= mapThreshold) readMapped(channel, size);
+                else readChannel(channel);
+            }
+        }
+        return md.digest();
+    }
+
+    /**
+     * Returns digest of the first and the last {@code block} bytes of a file,
+     * which is the digest of the whole file if it is not longer than two blocks.
+     */
+    public byte[] partialDigest(final Path path, final int block) throws IOException {
+        md.reset();
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            readRange(channel, 0, Math.min(block, size));
+            final long tail = Math.max(block, size - block);
+            readRange(channel, tail, size - tail);
+        }
+        return md.digest();
+    }
+
+    private void readRange(final FileChannel channel, final long position, final long length) throws IOException {
+        final ByteBuffer range = ByteBuffer.allocate((int) Math.max(0, length));
+        while (range.hasRemaining()) {
+            if (channel.read(range, position + range.position()) <= 0) break;
+        }
+        range.flip();
+        md.update(range);
+    }
+
+    private void readStream(final Path path) throws IOException {
+        try (final InputStream bis = Files.newInputStream(path)) {
+            int count;
+            while ((count = bis.read(buffer)) > 0) md.update(buffer, 0, count);
+        }
+    }
+
+    private void readChannel(final FileChannel channel) throws IOException {
+        directBuffer.clear();
+        while (channel.read(directBuffer) >= 0) {
+            directBuffer.flip();
+            md.update(directBuffer);
+            directBuffer.clear();
+        }
+    }
+
+    private void readMapped(final FileChannel channel, final long size) throws IOException {
+        for (long position = 0; position < size; position += MAP_CHUNK) {
+            md.update(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAP_CHUNK, size - position)));
+        }
+    }
+
+    public HashAlgorithm algorithm() {
+        return algorithm;
+    }
+}
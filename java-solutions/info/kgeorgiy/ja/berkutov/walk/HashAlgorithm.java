@@ -0,0 +1,107 @@
+package info.kgeorgiy.ja.berkutov.walk;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.function.Supplier;
+import java.util.zip.CRC32C;
+import java.util.zip.Checksum;
+
+/**
+ * Hash functions available for walking.
+ */
+public enum HashAlgorithm {
+    SHA_256("SHA-256", 32, () -> message("SHA-256")),
+    SHA_1("SHA-1", 20, () -> message("SHA-1")),
+    MD5("MD5", 16, () -> message("MD5")),
+    CRC32C("CRC32C", 4, () -> checksum(new CRC32C())),
+    XXHASH64("XXH64", 8, XxHash64::new);
+
+    private final String title;
+    private final int length;
+    private final Supplier<Digest> factory;
+
+    HashAlgorithm(final String title, final int length, final Supplier<Digest> factory) {
+        this.title = title;
+        this.length = length;
+        this.factory = factory;
+    }
+
+    public String title() {
+        return title;
+    }
+
+    /**
+     * Returns digest length in bytes.
+     */
+    public int length() {
+        return length;
+    }
+
+    public Digest create() {
+        return factory.get();
+    }
+
+    public static HashAlgorithm of(final String name) {
+        for (final HashAlgorithm algorithm : values()) {
+            if (algorithm.title.equalsIgnoreCase(name) || algorithm.name().equalsIgnoreCase(name)) return algorithm;
+        }
+        throw new IllegalArgumentException("Unknown hash algorithm " + name);
+    }
+
+    private static Digest message(final String algorithm) {
+        final MessageDigest md;
+        try {
+            md = MessageDigest.getInstance(algorithm);
+        } catch (final NoSuchAlgorithmException e) {
+            throw new AssertionError("Digest error: " + e);
+        }
+        return new Digest() {
+            @Override
+            public void update(final byte[] bytes, final int offset, final int length) {
+                md.update(bytes, offset, length);
+            }
+
+            @Override
+            public void update(final ByteBuffer buffer) {
+                md.update(buffer);
+            }
+
+            @Override
+            public byte[] digest() {
+                return md.digest();
+            }
+
+            @Override
+            public void reset() {
+                md.reset();
+            }
+        };
+    }
+
+    private static Digest checksum(final Checksum checksum) {
+        return new Digest() {
+            @Override
+            public void update(final byte[] bytes, final int offset, final int length) {
+                checksum.update(bytes, offset, length);
+            }
+
+            @Override
+            public void update(final ByteBuffer buffer) {
+                checksum.update(buffer);
+            }
+
+            @Override
+            public byte[] digest() {
+                final int value = (int) checksum.getValue();
+                checksum.reset();
+                return ByteBuffer.allocate(Integer.BYTES).putInt(value).array();
+            }
+
+            @Override
+            public void reset() {
+                checksum.reset();
+            }
+        };
+    }
+}
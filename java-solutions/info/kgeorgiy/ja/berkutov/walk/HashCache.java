@@ -0,0 +1,156 @@
+package info.kgeorgiy.ja.berkutov.walk;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Persistent hashes of files, valid while size, modification time and file key stay the same.
+ * Only files looked up during the current run are saved back when it completes.
+ */
+public class HashCache {
+    private static final int MAGIC = 0x57414C4B;
+
+    private final Path file;
+    private final String algorithm;
+    private final Map<String, Entry> stored;
+    private final Map<String, Entry> current = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private record Entry(long size, long modified, String key, byte[] digest) {
+        Entry(final BasicFileAttributes attrs, final byte[] digest) {
+            this(attrs.size(), attrs.lastModifiedTime().to(TimeUnit.NANOSECONDS),
+                    attrs.fileKey() == null ? "" : attrs.fileKey().toString(), digest);
+        }
+
+        boolean matches(final Entry other) {
+            return size == other.size && modified == other.modified && key.equals(other.key);
+        }
+    }
+
+    private HashCache(final Path file, final String algorithm, final Map<String, Entry> stored) {
+        this.file = file;
+        this.algorithm = algorithm;
+        this.stored = stored;
+    }
+
+    /**
+     * Reads cache from {@code file}. Missing file or file of another algorithm gives empty cache.
+     */
+    public static HashCache load(final Path file, final String algorithm) throws IOException {
+        final Map<String, Entry> stored = new ConcurrentHashMap<>();
+        try (final DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() == MAGIC && in.readUTF().equals(algorithm)) {
+                final int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    final String path = in.readUTF();
+                    final long size = in.readLong();
+                    final long modified = in.readLong();
+                    final String key = in.readUTF();
+                    final byte[] digest = in.readNBytes(in.readUnsignedByte());
+                    stored.put(path, new Entry(size, modified, key, digest));
+                }
+            }
+        } catch (final NoSuchFileException ignored) {
+        } catch (final EOFException e) {
+            System.out.println("Hash cache is truncated, ignoring it: " + file);
+            stored.clear();
+        }
+        return new HashCache(file, algorithm, stored);
+    }
+
+    /**
+     * Returns stored digest of an unchanged file or {@code null}.
+     */
+    public byte[] get(final Path path, final BasicFileAttributes attrs) {
+        final String name = name(path);
+        final Entry entry = stored.get(name);
+        if (entry != null && entry.matches(new Entry(attrs, null))) {
+            hits.increment();
+            current.put(name, entry);
+            return entry.digest;
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void put(final Path path, final BasicFileAttributes attrs, final byte[] digest) {
+        current.put(name(path), new Entry(attrs, digest));
+    }
+
+    /**
+     * Keeps stored digest of a file that is not looked up, because it was hashed before the walk resumed.
+     */
+    public void keep(final Path path) {
+        final String name = name(path);
+        final Entry entry = stored.get(name);
+        if (entry != null) current.putIfAbsent(name, entry);
+    }
+
+    /**
+     * Atomically replaces cache file with files looked up during this run.
+     */
+    public void save() throws IOException {
+        write(Map.copyOf(current));
+    }
+
+    /**
+     * Atomically replaces cache file with files looked up so far and stored files not looked up yet,
+     * so that a walk interrupted after this keeps both.
+     */
+    public void checkpoint() throws IOException {
+        final Map<String, Entry> entries = new HashMap<>(stored);
+        entries.putAll(current);
+        write(entries);
+    }
+
+    private void write(final Map<String, Entry> entries) throws IOException {
+        final Path parent = file.toAbsolutePath().getParent();
+        final Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeUTF(algorithm);
+                out.writeInt(entries.size());
+                for (final Map.Entry<String, Entry> e : entries.entrySet()) {
+                    final Entry entry = e.getValue();
+                    out.writeUTF(e.getKey());
+                    out.writeLong(entry.size);
+                    out.writeLong(entry.modified);
+                    out.writeUTF(entry.key);
+                    out.writeByte(entry.digest.length);
+                    out.write(entry.digest);
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    private static String name(final Path path) {
+        return path.toAbsolutePath().normalize().toString();
+    }
+}
@@ -0,0 +1,195 @@
+package info.kgeorgiy.ja.berkutov.walk;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.HexFormat;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Output stage of walking. Records are queued in order of traversal and a dedicated thread
+ * waits for their digests, formats lines into a large buffer and writes it in big chunks.
+ * If checkpoint file is set, output is forced to disk and its length is recorded there once in an interval,
+ * even while a large file is being hashed.
+ */
+public class HashWriter implements Closeable {
+    private static final int CHUNK = 1 << 20;
+    private static final Record END = new Record(null, null, -1, null, -1);
+
+    private final FileChannel channel;
+    private final BlockingQueue<Record> records;
+    private final Path checkpoint;
+    private final HashCache cache;
+    private final long checkpointInterval;
+    private final Thread thread;
+    private final HexFormat hex = HexFormat.of();
+    private final String separator = System.lineSeparator();
+    private final StringBuilder chunk = new StringBuilder(CHUNK + CHUNK / 8);
+    private volatile IOException failure;
+    private int root;
+    private long rootStart;
+    private Record last;
+    private Record checkpointed;
+    private long lastCheckpoint = System.nanoTime();
+
+    private record Record(Future<byte[]> digest, String path, int root, String rootName, long entry) {
+    }
+
+    public HashWriter(final FileChannel channel, final int capacity) {
+        this(channel, capacity, null, 0, null, null);
+    }
+
+    /**
+     * Creates writer appending to {@code channel} and writing {@link Checkpoint} to {@code checkpoint}
+     * every {@code checkpointSeconds} seconds while there are new lines, {@code checkpoint} may be {@code null}.
+     * Output of a walk resumed from {@code resume} continues its root, {@code resume} may be {@code null}.
+     * With every checkpoint {@code cache} is saved too, {@code cache} may be {@code null}.
+     */
+    public HashWriter(final FileChannel channel, final int capacity, final Path checkpoint,
+                      final long checkpointSeconds, final Checkpoint resume, final HashCache cache) {
+        this.channel = channel;
+        this.records = new ArrayBlockingQueue<>(capacity);
+        this.checkpoint = checkpoint;
+        this.cache = cache;
+        this.checkpointInterval = TimeUnit.SECONDS.toNanos(checkpointSeconds);
+        this.root = resume == null ? -1 : resume.root();
+        this.rootStart = resume == null ? 0 : resume.rootStart();
+        this.thread = new Thread(this::writeRecords, "walk-writer");
+        thread.start();
+    }
+
+    /**
+     * Queues line for {@code path}, the {@code entry}-th file of root number {@code root} read from input line
+     * {@code rootName}, blocking while the queue is full.
+     */
+    void add(final Future<byte[]> digest, final String path, final int root, final String rootName,
+             final long entry) throws IOException {
+        checkFailure();
+        try {
+            records.put(new Record(digest, path, root, rootName, entry));
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while queueing output");
+        }
+    }
+
+    private void writeRecords() {
+        try {
+            Record record;
+            while ((record = next()) != END) {
+                if (failure != null) continue;
+                try {
+                    if (record != null) writeRecord(record);
+                    if (checkpoint != null && last != checkpointed && untilCheckpoint() == 0) checkpoint();
+                } catch (final ExecutionException e) {
+                    failure = new IOException("Hashing failed", e.getCause());
+                } catch (final IOException e) {
+                    failure = e;
+                }
+            }
+            if (failure == null) {
+                write();
+                if (checkpoint != null && last != null) checkpoint();
+            }
+        } catch (final InterruptedException e) {
+            failure = new InterruptedIOException("Output interrupted");
+        } catch (final IOException e) {
+            failure = e;
+        }
+    }
+
+    /**
+     * Takes next record. While there are lines not covered by checkpoint, returns {@code null}
+     * when it is time to write checkpoint.
+     */
+    private Record next() throws InterruptedException {
+        return checkpoint == null || last == checkpointed
+                ? records.take()
+                : records.poll(untilCheckpoint(), TimeUnit.NANOSECONDS);
+    }
+
+    private void writeRecord(final Record record) throws IOException, ExecutionException, InterruptedException {
+        final byte[] digest = digest(record);
+        if (checkpoint != null && record.root != root) {
+            write();
+            root = record.root;
+            rootStart = channel.position();
+        }
+        hex.formatHex(chunk, digest);
+        chunk.append(' ').append(record.path).append(separator);
+        last = record;
+        if (chunk.length() >= CHUNK) write();
+    }
+
+    /**
+     * Waits for digest of {@code record}, writing checkpoint if it is due while the file is being hashed.
+     */
+    private byte[] digest(final Record record) throws IOException, ExecutionException, InterruptedException {
+        if (checkpoint != null && last != checkpointed) {
+            try {
+                return record.digest.get(untilCheckpoint(), TimeUnit.NANOSECONDS);
+            } catch (final TimeoutException e) {
+                checkpoint();
+            }
+        }
+        return record.digest.get();
+    }
+
+    private long untilCheckpoint() {
+        return Math.max(0, lastCheckpoint + checkpointInterval - System.nanoTime());
+    }
+
+    private void write() throws IOException {
+        final ByteBuffer bytes = ByteBuffer.wrap(chunk.toString().getBytes(StandardCharsets.UTF_8));
+        while (bytes.hasRemaining()) channel.write(bytes);
+        chunk.setLength(0);
+    }
+
+    /**
+     * Writes all formatted lines, forces them to disk and records them in checkpoint along with hash cache.
+     */
+    private void checkpoint() throws IOException {
+        write();
+        channel.force(false);
+        new Checkpoint(last.root, last.rootName, rootStart, last.entry + 1, last.path, channel.position())
+                .write(checkpoint);
+        if (cache != null) {
+            try {
+                cache.checkpoint();
+            } catch (final IOException | SecurityException e) {
+                System.out.println("Can not write hash cache: " + e.getMessage());
+            }
+        }
+        checkpointed = last;
+        lastCheckpoint = System.nanoTime();
+    }
+
+    private void checkFailure() throws IOException {
+        if (failure != null) throw failure;
+    }
+
+    /**
+     * Writes all queued lines and stops output thread. The channel is left open.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            records.put(END);
+            thread.join();
+        } catch (final InterruptedException e) {
+            thread.interrupt();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while writing output");
+        }
+        checkFailure();
+    }
+}
@@ -1,54 +1,102 @@
 package info.kgeorgiy.ja.berkutov.walk;
 
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.IOException;
-import java.nio.file.FileVisitor;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 public class RecursiveWalk {
     public static void main(final String[] args) {
-        if (args == null || args.length != 2 || (args[0] == null || args[1] == null)) {
-            System.out.println("Two arguments are required");
+        final WalkOptions options;
+        try {
+            options = WalkOptions.parse(args);
+        } catch (final IllegalArgumentException e) {
+            System.out.println(e.getMessage());
             return;
         }
 
         try {
-            final Path inputFile = Path.of(args[0]);
-            final Path outputFile = Path.of(args[1]);
+            final Path inputFile = Path.of(options.input);
+            final Path outputFile = Path.of(options.output);
             final Path parent = outputFile.getParent();
             try {
                 if (parent != null && Files.notExists(parent)) Files.createDirectories(parent);
             } catch (final IOException | SecurityException ignored) {
             }
-            try (final BufferedReader reader = Files.newBufferedReader(inputFile)) {
-                try (final BufferedWriter writer = Files.newBufferedWriter(outputFile)) {
-                    final FileVisitor<Path> visitor = new RecursiveWalker(writer);
+            final HashCache cache;
+            try {
+                cache = options.cache == null ? null : HashCache.load(Path.of(options.cache), options.algorithm.title());
+            } catch (final IOException | SecurityException e) {
+                printException("Can not read hash cache", e);
+                return;
+            }
+            final Path checkpointFile = options.checkpoint == null ? null : Path.of(options.checkpoint);
+            final Checkpoint resume;
+            try {
+                resume = checkpointFile == null ? null : Checkpoint.read(checkpointFile);
+            } catch (final IOException | SecurityException e) {
+                printException("Can not read checkpoint", e);
+                return;
+            }
+            boolean completed = false;
+            try (final BufferedReader reader = Files.newBufferedReader(inputFile);
+                 final WalkStats stats = new WalkStats(options.threads, options.slowest)) {
+                if (options.progress > 0) stats.startProgress(options.progress);
+                try (final FileChannel channel = openOutput(outputFile, resume);
+                     final RecursiveWalker visitor = new RecursiveWalker(
+                             new HashWriter(channel, RecursiveWalker.queueCapacity(options.threads),
+                                     checkpointFile, options.checkpointInterval, resume, cache),
+                             options.threads, options.hasher(), cache, stats)) {
                     try {
                         String name;
-                        while ((name = reader.readLine()) != null)
+                        for (int root = 0; (name = reader.readLine()) != null; root++) {
+                            if (resume != null && root < resume.root()) continue;
                             try {
-                                Files.walkFileTree(Path.of(name), visitor);
+                                walkRoot(visitor, channel, options, root, name,
+                                        resume != null && root == resume.root() ? resume : null);
                             } catch (final InvalidPathException e) {
                                 printException("Invalid file name", e);
-                                writeZero(writer, name);
+                                stats.error(e);
+                                visitor.writeZero(name);
                             } catch (final SecurityException e) {
                                 printException("Error during the walking", e);
-                                writeZero(writer, name);
+                                stats.error(e);
+                                visitor.writeZero(name);
                             } catch (final IOException e) {
                                 printException("Error writing output file", e);
                                 return;
                             }
+                        }
+                        completed = true;
                     } catch (final IOException e) {
                         printException("Error during the reading input file", e);
                     }
                 } catch (final IOException | SecurityException e) {
                     printException("Can not open output file", e);
+                    completed = false;
                 }
+                if (options.stats != null) writeStats(options.stats, stats);
             } catch (final IOException | SecurityException e) {
                 printException("Can not open input file", e);
+                return;
+            }
+            if (completed && checkpointFile != null) {
+                try {
+                    Files.deleteIfExists(checkpointFile);
+                } catch (final IOException | SecurityException e) {
+                    printException("Can not delete checkpoint", e);
+                }
+            }
+            if (cache != null) {
+                System.out.println("Hash cache: " + cache.hits() + " hits, " + cache.misses() + " misses");
+                try {
+                    cache.save();
+                } catch (final IOException | SecurityException e) {
+                    printException("Can not write hash cache", e);
+                }
             }
         } catch (final InvalidPathException e) {
             // :NOTE: input or output?
@@ -56,9 +104,57 @@ public class RecursiveWalk {
         }
     }
 
-    static private void writeZero(final BufferedWriter writer, final String name) throws IOException {
-        writer.write("0".repeat(64) + " " + name);
-        writer.newLine();
+    /**
+     * Walks root number {@code root}, skipping files written before {@code resume}, which may be {@code null}.
+     * If the root does not match the checkpoint, its output is truncated and it is walked from the start.
+     */
+    static private void walkRoot(final RecursiveWalker visitor, final FileChannel channel, final WalkOptions options,
+                                 final int root, final String name, final Checkpoint resume) throws IOException {
+        if (resume != null) {
+            try {
+                if (!name.equals(resume.rootName())) {
+                    throw new Checkpoint.StaleException("input line " + (root + 1) + " changed");
+                }
+                visitor.startRoot(root, name, resume);
+                Files.walkFileTree(Path.of(name), options.visitOptions(), Integer.MAX_VALUE, visitor);
+                visitor.finishRoot();
+                return;
+            } catch (final Checkpoint.StaleException e) {
+                // nothing of this root is written after resuming yet
+                System.out.println("Checkpoint does not match, walking " + name + " again: " + e.getMessage());
+                channel.truncate(resume.rootStart());
+                channel.position(resume.rootStart());
+            }
+        }
+        visitor.startRoot(root, name, null);
+        Files.walkFileTree(Path.of(name), options.visitOptions(), Integer.MAX_VALUE, visitor);
+    }
+
+    /**
+     * Opens output file, truncating it unless walk resumes from {@code resume}.
+     */
+    static private FileChannel openOutput(final Path file, final Checkpoint resume) throws IOException {
+        if (resume == null) {
+            return FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        }
+        final FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+        if (channel.size() < resume.position()) {
+            channel.close();
+            throw new IOException("Output is shorter than checkpoint " + resume.position());
+        }
+        channel.truncate(resume.position());
+        channel.position(resume.position());
+        return channel;
+    }
+
+    static private void writeStats(final String file, final WalkStats stats) {
+        try {
+            if ("-".equals(file)) System.out.print(stats.toJson());
+            else Files.writeString(Path.of(file), stats.toJson());
+        } catch (final IOException | InvalidPathException | SecurityException e) {
+            printException("Can not write statistics", e);
+        }
     }
 
     static private void printException(final String message, final Exception e) {
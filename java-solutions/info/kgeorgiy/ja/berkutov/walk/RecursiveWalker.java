@@ -1,56 +1,191 @@
 package info.kgeorgiy.ja.berkutov.walk;
 
-import java.io.BufferedWriter;
+import java.io.Closeable;
 import java.io.IOException;
-import java.io.InputStream;
+import java.nio.channels.FileChannel;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
+import java.nio.file.LinkOption;
 import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.HexFormat;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
 
-public class RecursiveWalker extends SimpleFileVisitor<Path> {
-    private final BufferedWriter writer;
-    private final MessageDigest md;
-    private final byte[] buffer = new byte[2048];
+/**
+ * Visitor writing hashes of visited files.
+ * With more than one thread, traversal only schedules files and a pool of workers hashes them.
+ * Lines are written by a separate output thread in the order of traversal.
+ */
+public class RecursiveWalker extends SimpleFileVisitor<Path> implements Closeable {
+    private static final int PENDING_PER_THREAD = 64;
+    private static final int MIN_PENDING = 1024;
+    private static final LinkOption[] FOLLOW = {};
+    private static final LinkOption[] NO_FOLLOW = {LinkOption.NOFOLLOW_LINKS};
 
-    public RecursiveWalker(final BufferedWriter writer) {
-        this.writer = writer;
-        try {
-            md = MessageDigest.getInstance("SHA-256");
-        } catch (final NoSuchAlgorithmException e) {
-            throw new AssertionError("Digest error: " + e);
+    private final HashWriter output;
+    private final ExecutorService workers;
+    private final ThreadLocal<FileHasher> hashers;
+    private final HashCache cache;
+    private final WalkStats stats;
+    private final byte[] zero;
+    private final Map<Object, Future<byte[]>> inodes = new HashMap<>();
+    private int root;
+    private String rootName = "";
+    private long entry;
+    private long skip;
+    private String lastSkipped;
+
+    public RecursiveWalker(final FileChannel output) {
+        this(output, 1);
+    }
+
+    public RecursiveWalker(final FileChannel output, final int threads) {
+        this(new HashWriter(output, queueCapacity(threads)), threads, FileHasher::new, null,
+                new WalkStats(threads, 0));
+    }
+
+    /**
+     * Creates walker hashing with {@code threads} threads.
+     * Files unchanged since they were stored in {@code cache} are not read, {@code cache} may be {@code null}.
+     * Hashed files and errors are counted in {@code stats}.
+     */
+    public RecursiveWalker(final HashWriter output, final int threads, final Supplier<FileHasher> hasher,
+                           final HashCache cache, final WalkStats stats) {
+        if (threads < 1) throw new IllegalArgumentException("Number of threads should be at least 1");
+        this.workers = threads == 1 ? null : Executors.newFixedThreadPool(threads);
+        this.hashers = ThreadLocal.withInitial(hasher);
+        this.cache = cache;
+        this.stats = stats;
+        this.zero = new byte[hashers.get().algorithm().length()];
+        this.output = output;
+    }
+
+    /**
+     * Returns output queue capacity enough to keep {@code threads} hashing threads busy.
+     */
+    public static int queueCapacity(final int threads) {
+        return Math.max(MIN_PENDING, threads * PENDING_PER_THREAD);
+    }
+
+    /**
+     * Starts root number {@code root} read from input line {@code name}.
+     * If walk resumes from {@code resume}, files already written are skipped, {@code resume} may be {@code null}.
+     */
+    public void startRoot(final int root, final String name, final Checkpoint resume) {
+        this.root = root;
+        this.rootName = name;
+        this.entry = 0;
+        this.skip = resume == null ? 0 : resume.entries();
+        this.lastSkipped = resume == null ? null : resume.lastPath();
+    }
+
+    /**
+     * Checks that the root had all files recorded in checkpoint it was resumed from.
+     */
+    public void finishRoot() throws Checkpoint.StaleException {
+        if (entry < skip) {
+            throw new Checkpoint.StaleException("Root " + rootName + " has less than " + skip + " files");
         }
     }
 
+    /**
+     * Schedules hashing of {@code path}.
+     * Paths of an already visited file key (device and inode) reuse its digest instead of reading it again.
+     * Only keys of files with several hard links are remembered.
+     */
     @Override
     public FileVisitResult visitFile(final Path path, final BasicFileAttributes attrs) throws IOException {
-        // :NOTE: error handling
-        writeHash(hash(path.toString(), md), path);
+        if (skipped(path.toString())) {
+            if (cache != null) cache.keep(path);
+            return FileVisitResult.CONTINUE;
+        }
+        final Object key = attrs.fileKey() != null && hardLinked(path, attrs) ? attrs.fileKey() : null;
+        Future<byte[]> digest = key == null ? null : inodes.get(key);
+        if (digest == null) {
+            if (workers == null) digest = CompletableFuture.completedFuture(digest(path, attrs));
+            else digest = workers.submit(() -> digest(path, attrs));
+            if (key != null) inodes.put(key, digest);
+        }
+        output.add(digest, path.toString(), root, rootName, entry++);
         return FileVisitResult.CONTINUE;
     }
 
     @Override
-    public FileVisitResult visitFileFailed(final Path path, IOException exc) throws IOException{
+    public FileVisitResult visitFileFailed(final Path path, IOException exc) throws IOException {
+        if (skipped(path.toString())) return FileVisitResult.CONTINUE;
         System.out.println("File visiting failed: " + exc.getMessage());
-        writeHash("0".repeat(64), path);
+        stats.error(exc);
+        output.add(CompletableFuture.completedFuture(zero), path.toString(), root, rootName, entry++);
         return FileVisitResult.CONTINUE;
     }
 
-    private String hash(final String filePath, final MessageDigest md) throws IOException {
-        try (final InputStream bis = Files.newInputStream(Path.of(filePath))) {
-            md.reset();
-            int count;
-            while ((count = bis.read(buffer)) > 0) md.update(buffer, 0, count);
-            return HexFormat.of().formatHex(md.digest());
+    public void writeZero(final String name) throws IOException {
+        if (!skipped(name)) output.add(CompletableFuture.completedFuture(zero), name, root, rootName, entry++);
+    }
+
+    /**
+     * Checks whether file may have other paths. Without {@code unix:nlink} every file may.
+     */
+    private static boolean hardLinked(final Path path, final BasicFileAttributes attrs) {
+        if (!path.getFileSystem().supportedFileAttributeViews().contains("unix")) return true;
+        try {
+            final LinkOption[] options = attrs.isSymbolicLink() ? NO_FOLLOW : FOLLOW;
+            return (Integer) Files.getAttribute(path, "unix:nlink", options) > 1;
+        } catch (final IOException | UnsupportedOperationException | IllegalArgumentException | SecurityException e) {
+            return true;
         }
     }
 
-    private void writeHash(final String hash, final Path path) throws IOException {
-        writer.write(hash + " " + path.toString());
-        writer.newLine();
+    /**
+     * Skips files already written before resuming, checking that the last of them is the same.
+     */
+    private boolean skipped(final String path) throws Checkpoint.StaleException {
+        if (entry >= skip) return false;
+        if (entry == skip - 1 && !path.equals(lastSkipped)) {
+            throw new Checkpoint.StaleException("Expected " + lastSkipped + " but found " + path);
+        }
+        entry++;
+        return true;
+    }
+
+    private byte[] digest(final Path path, final BasicFileAttributes linkAttrs) {
+        try {
+            // hasher reads the target of a link, so the cache is checked against target attributes
+            final BasicFileAttributes attrs = linkAttrs.isSymbolicLink()
+                    ? Files.readAttributes(path, BasicFileAttributes.class)
+                    : linkAttrs;
+            byte[] digest = cache == null ? null : cache.get(path, attrs);
+            if (digest != null) {
+                stats.cached();
+                return digest;
+            }
+            final long start = System.nanoTime();
+            digest = hashers.get().digest(path);
+            stats.hashed(path, attrs.size(), System.nanoTime() - start);
+            if (cache != null) cache.put(path, attrs, digest);
+            return digest;
+        } catch (final IOException | SecurityException e) {
+            System.out.println("File hashing failed: " + e.getMessage());
+            stats.error(e);
+            return zero;
+        }
+    }
+
+    /**
+     * Writes all scheduled lines and stops hashing workers.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            output.close();
+        } finally {
+            if (workers != null) workers.shutdownNow();
+        }
     }
 }
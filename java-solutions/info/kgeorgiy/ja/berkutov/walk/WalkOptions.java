@@ -0,0 +1,128 @@
+package info.kgeorgiy.ja.berkutov.walk;
+
+import java.nio.file.FileVisitOption;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Command line of {@link RecursiveWalk} and {@link DuplicateWalk}:
+ * {@code <input> <output> [-threads <n>] [-io stream|channel|mmap] [-buffer <bytes>] [-map-threshold <bytes>]
+ * [-cache <file>] [-algorithm sha-256|sha-1|md5|crc32c|xxh64] [-follow-links]
+ * [-progress <seconds>] [-stats <file>|-] [-slowest <n>] [-checkpoint <file>] [-checkpoint-interval <seconds>]}.
+ * With checkpoint file, an interrupted walk resumes from the checkpoint and appends to the output.
+ * {@link DuplicateWalk} accepts only {@link #HASHING} options.
+ */
+class WalkOptions {
+    String input;
+    String output;
+    int threads = 1;
+    HashAlgorithm algorithm = HashAlgorithm.SHA_256;
+    FileHasher.ReadMode readMode = FileHasher.ReadMode.STREAM;
+    int bufferSize = FileHasher.DEFAULT_BUFFER_SIZE;
+    long mapThreshold = FileHasher.DEFAULT_MAP_THRESHOLD;
+    String cache;
+    boolean followLinks;
+    long progress;
+    String stats;
+    int slowest = 10;
+    String checkpoint;
+    long checkpointInterval = 30;
+
+    /**
+     * Options that only choose how files are read and hashed.
+     */
+    static final Set<String> HASHING = Set.of("-threads", "-io", "-buffer", "-map-threshold", "-algorithm",
+            "-follow-links");
+
+    static WalkOptions parse(final String[] args) {
+        return parse(args, null);
+    }
+
+    /**
+     * Parses command line, rejecting options not in {@code supported} unless it is {@code null}.
+     */
+    static WalkOptions parse(final String[] args, final Set<String> supported) {
+        if (args == null || args.length < 2 || args[0] == null || args[1] == null) {
+            throw new IllegalArgumentException("Two arguments are required");
+        }
+        final WalkOptions options = new WalkOptions();
+        options.input = args[0];
+        options.output = args[1];
+        for (int i = 2; i < args.length; i++) {
+            final String option = args[i];
+            if (supported != null && !supported.contains(option)) {
+                throw new IllegalArgumentException("Unsupported option " + option);
+            }
+            if ("-threads".equals(option)) {
+                options.threads = intValue(args, ++i);
+                if (options.threads < 1) throw new IllegalArgumentException("Number of threads should be at least 1");
+            } else if ("-io".equals(option)) {
+                options.readMode = enumValue(FileHasher.ReadMode.class, args, ++i);
+            } else if ("-buffer".equals(option)) {
+                options.bufferSize = intValue(args, ++i);
+                if (options.bufferSize < 1) throw new IllegalArgumentException("Buffer size should be positive");
+            } else if ("-map-threshold".equals(option)) {
+                options.mapThreshold = longValue(args, ++i);
+            } else if ("-cache".equals(option)) {
+                options.cache = value(args, ++i);
+            } else if ("-algorithm".equals(option)) {
+                options.algorithm = HashAlgorithm.of(value(args, ++i));
+            } else if ("-follow-links".equals(option)) {
+                options.followLinks = true;
+            } else if ("-progress".equals(option)) {
+                options.progress = longValue(args, ++i);
+            } else if ("-stats".equals(option)) {
+                options.stats = value(args, ++i);
+            } else if ("-slowest".equals(option)) {
+                options.slowest = intValue(args, ++i);
+            } else if ("-checkpoint".equals(option)) {
+                options.checkpoint = value(args, ++i);
+            } else if ("-checkpoint-interval".equals(option)) {
+                options.checkpointInterval = longValue(args, ++i);
+            } else {
+                throw new IllegalArgumentException("Unknown option " + option);
+            }
+        }
+        return options;
+    }
+
+    Set<FileVisitOption> visitOptions() {
+        return followLinks ? EnumSet.of(FileVisitOption.FOLLOW_LINKS) : EnumSet.noneOf(FileVisitOption.class);
+    }
+
+    Supplier<FileHasher> hasher() {
+        return () -> new FileHasher(algorithm, readMode, bufferSize, mapThreshold);
+    }
+
+    private static String value(final String[] args, final int index) {
+        if (index >= args.length || args[index] == null) {
+            throw new IllegalArgumentException("Value expected after " + args[index - 1]);
+        }
+        return args[index];
+    }
+
+    private static int intValue(final String[] args, final int index) {
+        try {
+            return Integer.parseInt(value(args, index));
+        } catch (final NumberFormatException e) {
+            throw new IllegalArgumentException("Integer expected after " + args[index - 1]);
+        }
+    }
+
+    private static long longValue(final String[] args, final int index) {
+        try {
+            return Long.parseLong(value(args, index));
+        } catch (final NumberFormatException e) {
+            throw new IllegalArgumentException("Integer expected after " + args[index - 1]);
+        }
+    }
+
+    private static <E extends Enum<E>> E enumValue(final Class<E> type, final String[] args, final int index) {
+        final String name = value(args, index);
+        for (final E constant : type.getEnumConstants()) {
+            if (constant.name().equalsIgnoreCase(name)) return constant;
+        }
+        throw new IllegalArgumentException("Unknown value " + name + " of " + args[index - 1]);
+    }
+}
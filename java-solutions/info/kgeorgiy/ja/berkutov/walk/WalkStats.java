@@ -0,0 +1,163 @@
+package info.kgeorgiy.ja.berkutov.walk;
+
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of a walk: throughput, per-file hashing latency, slowest files and errors.
+ * Latency histogram has power-of-two buckets in microseconds.
+ */
+public class WalkStats implements Closeable {
+    private static final int BUCKETS = 40;
+
+    private final int threads;
+    private final int slowestLimit;
+    private final long start = System.nanoTime();
+    private final LongAdder files = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder cached = new LongAdder();
+    private final LongAdder busy = new LongAdder();
+    private final AtomicLongArray latency = new AtomicLongArray(BUCKETS);
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private final PriorityQueue<Slow> slowest = new PriorityQueue<>(Comparator.comparingLong(Slow::nanos));
+    private volatile long slowThreshold = -1;
+    private ScheduledExecutorService progress;
+
+    private record Slow(String path, long bytes, long nanos) {
+    }
+
+    public WalkStats(final int threads, final int slowestLimit) {
+        this.threads = threads;
+        this.slowestLimit = slowestLimit;
+    }
+
+    public void hashed(final Path path, final long size, final long nanos) {
+        files.increment();
+        bytes.add(size);
+        busy.add(nanos);
+        latency.incrementAndGet(Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos / 1000)));
+        if (nanos > slowThreshold && slowestLimit > 0) {
+            synchronized (slowest) {
+                slowest.add(new Slow(path.toString(), size, nanos));
+                if (slowest.size() > slowestLimit) {
+                    slowest.poll();
+                    slowThreshold = slowest.element().nanos;
+                }
+            }
+        }
+    }
+
+    public void cached() {
+        files.increment();
+        cached.increment();
+    }
+
+    public void error(final Exception e) {
+        errors.computeIfAbsent(e.getClass().getSimpleName(), k -> new LongAdder()).increment();
+    }
+
+    /**
+     * Prints progress line every {@code seconds} seconds until closed.
+     */
+    public void startProgress(final long seconds) {
+        progress = Executors.newSingleThreadScheduledExecutor(r -> {
+            final Thread thread = new Thread(r, "walk-progress");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final long[] last = {System.nanoTime(), 0, 0};
+        progress.scheduleAtFixedRate(() -> {
+            final long now = System.nanoTime();
+            final long f = files.sum();
+            final long b = bytes.sum();
+            final double interval = (now - last[0]) / 1e9;
+            System.out.printf("Progress: %d files, %.1f MB, %.0f files/s, %.1f MB/s, %d errors%n",
+                    f, b / 1e6, (f - last[1]) / interval, (b - last[2]) / 1e6 / interval, errorCount());
+            last[0] = now;
+            last[1] = f;
+            last[2] = b;
+        }, seconds, seconds, TimeUnit.SECONDS);
+    }
+
+    private long errorCount() {
+        return errors.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    /**
+     * Returns summary of the walk as JSON object.
+     * {@code busy} is the share of wall-clock time hashing threads spent reading and hashing:
+     * low values with low throughput point to traversal or output, high values to disk or CPU.
+     */
+    public String toJson() {
+        final double seconds = Math.max(1, System.nanoTime() - start) / 1e9;
+        final long f = files.sum();
+        final long b = bytes.sum();
+        final StringBuilder json = new StringBuilder("{\n");
+        json.append(String.format("  \"seconds\": %.3f,%n", seconds));
+        json.append(String.format("  \"files\": %d,%n", f));
+        json.append(String.format("  \"cachedFiles\": %d,%n", cached.sum()));
+        json.append(String.format("  \"bytes\": %d,%n", b));
+        json.append(String.format("  \"filesPerSecond\": %.1f,%n", f / seconds));
+        json.append(String.format("  \"bytesPerSecond\": %.1f,%n", b / seconds));
+        json.append(String.format("  \"busy\": %.3f,%n", busy.sum() / 1e9 / seconds / threads));
+
+        json.append("  \"latencyMicros\": {");
+        String separator = "";
+        for (int i = 0; i < BUCKETS; i++) {
+            final long count = latency.get(i);
+            if (count == 0) continue;
+            json.append(separator).append("\"<").append(1L << i).append("\": ").append(count);
+            separator = ", ";
+        }
+        json.append("},\n");
+
+        final List<Slow> slow;
+        synchronized (slowest) {
+            slow = new ArrayList<>(slowest);
+        }
+        slow.sort(Comparator.comparingLong(Slow::nanos).reversed());
+        json.append("  \"slowest\": [");
+        separator = "";
+        for (final Slow s : slow) {
+            json.append(separator).append(String.format("%n    {\"path\": \"%s\", \"bytes\": %d, \"micros\": %d}",
+                    escape(s.path), s.bytes, s.nanos / 1000));
+            separator = ",";
+        }
+        json.append(slow.isEmpty() ? "" : "\n  ").append("],\n");
+
+        json.append("  \"errors\": {");
+        separator = "";
+        for (final Map.Entry<String, LongAdder> e : new TreeMap<>(errors).entrySet()) {
+            json.append(separator).append('"').append(e.getKey()).append("\": ").append(e.getValue().sum());
+            separator = ", ";
+        }
+        return json.append("}\n}\n").toString();
+    }
+
+    private static String escape(final String s) {
+        final StringBuilder sb = new StringBuilder();
+        for (final char c : s.toCharArray()) {
+            if (c == '"' || c == '\\') sb.append('\\').append(c);
+            else if (c < ' ') sb.append(String.format("\\u%04x", (int) c));
+            else sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public void close() {
+        if (progress != null) progress.shutdownNow();
+    }
+}
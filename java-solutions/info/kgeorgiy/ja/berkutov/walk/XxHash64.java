@@ -0,0 +1,112 @@
+package info.kgeorgiy.ja.berkutov.walk;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Streaming <a href="https://github.com/Cyan4973/xxHash">xxHash64</a> with zero seed.
+ * Digest is the big-endian representation of the 64-bit hash.
+ */
+public class XxHash64 implements Digest {
+    private static final long PRIME1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME3 = 0x165667B19E3779F9L;
+    private static final long PRIME4 = 0x85EBCA77C2B2AE63L;
+    private static final long PRIME5 = 0x27D4EB2F165667C5L;
+    private static final int STRIPE = 32;
+
+    private final ByteBuffer pending = ByteBuffer.allocate(STRIPE).order(ByteOrder.LITTLE_ENDIAN);
+    private long v1, v2, v3, v4;
+    private long total;
+
+    public XxHash64() {
+        reset();
+    }
+
+    @Override
+    public void reset() {
+        v1 = PRIME1 + PRIME2;
+        v2 = PRIME2;
+        v3 = 0;
+        v4 = -PRIME1;
+        total = 0;
+        pending.clear();
+    }
+
+    @Override
+    public void update(final byte[] bytes, final int offset, final int length) {
+        update(ByteBuffer.wrap(bytes, offset, length));
+    }
+
+    @Override
+    public void update(final ByteBuffer buffer) {
+        final ByteBuffer input = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+        buffer.position(buffer.limit());
+        total += input.remaining();
+
+        if (pending.position() > 0) {
+            final int count = Math.min(pending.remaining(), input.remaining());
+            pending.put(input.slice().limit(count));
+            input.position(input.position() + count);
+            if (pending.hasRemaining()) return;
+            pending.flip();
+            stripe(pending);
+            pending.clear();
+        }
+        while (input.remaining() >= STRIPE) stripe(input);
+        pending.put(input);
+    }
+
+    private void stripe(final ByteBuffer input) {
+        v1 = round(v1, input.getLong());
+        v2 = round(v2, input.getLong());
+        v3 = round(v3, input.getLong());
+        v4 = round(v4, input.getLong());
+    }
+
+    @Override
+    public byte[] digest() {
+        long h;
+        if (total >= STRIPE) {
+            h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            h = merge(h, v1);
+            h = merge(h, v2);
+            h = merge(h, v3);
+            h = merge(h, v4);
+        } else {
+            h = PRIME5;
+        }
+        h += total;
+
+        pending.flip();
+        while (pending.remaining() >= 8) {
+            h ^= round(0, pending.getLong());
+            h = Long.rotateLeft(h, 27) * PRIME1 + PRIME4;
+        }
+        if (pending.remaining() >= 4) {
+            h ^= (pending.getInt() & 0xFFFFFFFFL) * PRIME1;
+            h = Long.rotateLeft(h, 23) * PRIME2 + PRIME3;
+        }
+        while (pending.hasRemaining()) {
+            h ^= (pending.get() & 0xFF) * PRIME5;
+            h = Long.rotateLeft(h, 11) * PRIME1;
+        }
+
+        h ^= h >>> 33;
+        h *= PRIME2;
+        h ^= h >>> 29;
+        h *= PRIME3;
+        h ^= h >>> 32;
+
+        reset();
+        return ByteBuffer.allocate(Long.BYTES).putLong(h).array();
+    }
+
+    private static long round(final long acc, final long input) {
+        return Long.rotateLeft(acc + input * PRIME2, 31) * PRIME1;
+    }
+
+    private static long merge(final long acc, final long value) {
+        return (acc ^ round(0, value)) * PRIME1 + PRIME4;
+    }
+}
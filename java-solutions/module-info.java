@@ -16,4 +16,6 @@ open module info.kgeorgiy.ja.berkutov {
     requires info.kgeorgiy.java.advanced.hello;
 
     requires java.compiler;
+
+    requires java.management;
 }
\ No newline at end of file
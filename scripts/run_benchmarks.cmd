@@ -0,0 +1,14 @@
+@echo off
+
+set root=%~dp0..\..
+set solution=%root%\java-advanced
+set java_solutions=%solution%\java-solutions
+set benchmarks=%solution%\java-benchmarks
+set walk=%java_solutions%\info\kgeorgiy\ja\berkutov\walk\*.java
+set bench=%benchmarks%\info\kgeorgiy\ja\berkutov\walk\bench\*.java
+set lib=%root%\java-advanced-2023\lib
+set jmh=%lib%\jmh-core.jar;%lib%\jmh-generator-annprocess.jar;%lib%\jopt-simple.jar;%lib%\commons-math3.jar
+
+javac -cp "%jmh%" %walk% %bench% -d out-benchmarks
+java -cp "out-benchmarks;%jmh%" org.openjdk.jmh.Main WalkBenchmark %*
+rd /s /q out-benchmarks